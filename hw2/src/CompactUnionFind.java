@@ -0,0 +1,114 @@
+import java.util.Arrays;
+
+/**
+ * A disjoint-set structure that needs one int per item and nothing else.
+ *
+ * parent[v] is v's parent if it is non-negative. Otherwise v is a root and
+ * ~parent[v] holds the set's data: its rank in the low RANK_BITS bits and
+ * its marks above them. Item indices never use the sign bit, so a root can
+ * hide up to 31 bits of data where UnionFind keeps a size. Union by rank
+ * keeps ranks under 32, which fits in 5 bits and leaves 26 bits of marks.
+ *
+ * Marks are flags attached to a set: {@link #mark} ORs bits into the set
+ * of an item, and a union ORs the marks of the two sets together. Percolation
+ * uses them to remember which sets touch the top and bottom rows, instead of
+ * adding virtual sites and a second structure.
+ *
+ * find() uses path halving, which needs one pass and no stack.
+ */
+public class CompactUnionFind {
+    private static final int RANK_BITS = 5;
+    private static final int RANK_MASK = (1 << RANK_BITS) - 1;
+    /** Number of mark bits available per set. */
+    public static final int MARK_BITS = 31 - RANK_BITS;
+
+    private final int[] parent;
+
+    /* Creates a CompactUnionFind holding N items, each in its own set with rank 0 and no marks. */
+    public CompactUnionFind(int N) {
+        parent = new int[N];
+        Arrays.fill(parent, -1);
+    }
+
+    /* Returns the root of the set V belongs to, halving the path on the way. */
+    public int find(int v) {
+        validate(v);
+        while (parent[v] >= 0) {
+            int p = parent[v];
+            int grandparent = parent[p];
+            if (grandparent < 0) {
+                return p;
+            }
+            parent[v] = grandparent;
+            v = grandparent;
+        }
+        return v;
+    }
+
+    /* Returns true if V1 and V2 are in the same set. */
+    public boolean connected(int v1, int v2) {
+        return find(v1) == find(v2);
+    }
+
+    /* Merges the sets of V1 and V2 by rank, keeping the marks of both. */
+    public void union(int v1, int v2) {
+        int r1 = find(v1);
+        int r2 = find(v2);
+        if (r1 == r2) {
+            return;
+        }
+        int data1 = ~parent[r1];
+        int data2 = ~parent[r2];
+        int rank1 = data1 & RANK_MASK;
+        int rank2 = data2 & RANK_MASK;
+        int marks = (data1 | data2) & ~RANK_MASK;
+        if (rank1 > rank2) {
+            parent[r2] = r1;
+            parent[r1] = ~(marks | rank1);
+        } else {
+            parent[r1] = r2;
+            parent[r2] = ~(marks | (rank1 == rank2 ? rank2 + 1 : rank2));
+        }
+    }
+
+    /* ORs MARKS, which must fit in MARK_BITS bits, into the marks of V's set. */
+    public void mark(int v, int marks) {
+        if (marks >>> MARK_BITS != 0) {
+            throw new IllegalArgumentException("marks must fit in " + MARK_BITS + " bits: " + marks);
+        }
+        int root = find(v);
+        parent[root] = ~(~parent[root] | marks << RANK_BITS);
+    }
+
+    /* Returns the marks of V's set. */
+    public int marks(int v) {
+        return ~parent[find(v)] >>> RANK_BITS;
+    }
+
+    /* Returns the rank of V's set: an upper bound on the height of its tree. */
+    public int rank(int v) {
+        return ~parent[find(v)] & RANK_MASK;
+    }
+
+    /* Puts every item back in its own set with no marks. */
+    public void reset() {
+        Arrays.fill(parent, -1);
+    }
+
+    /* Like reset(), but touches only ITEMS[0, count). This is correct only
+       if those include every item passed to union() or mark() since the last
+       reset: an entry first changes while its item is a root, and find()
+       only rewrites items that are already below a root, so no other entry
+       can have changed. */
+    public void reset(int[] items, int count) {
+        for (int i = 0; i < count; i += 1) {
+            parent[items[i]] = -1;
+        }
+    }
+
+    private void validate(int v) {
+        if (v < 0 || v >= parent.length) {
+            throw new IllegalArgumentException(v + " is not an item in [0, " + parent.length + ")");
+        }
+    }
+}
@@ -1,38 +1,122 @@
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
-
+import java.util.Arrays;
 
 public class Percolation {
-    // TODO: Add any necessary instance variables.
+    /* Largest N whose N * N sites still have int indices. */
+    private static final int MAX_N = 46340;
+    /* Marks on a set of open sites in the union-find. */
+    private static final int TOP = 1;
+    private static final int BOTTOM = 2;
+
+    private final int N;
+    /* Bit (site & 63) of open[site >>> 6] is set when the site is open:
+     * 1 bit per site instead of a boolean's byte. */
+    private final long[] open;
+    /* The first N * N / 8 sites opened since construction or the last
+     * reset(), in order: enough for reset() to touch only those sites while
+     * few are open, at half a byte per site. */
+    private final int[] opened;
+    private int openSites;
+    /* The sites, with each set marked TOP and/or BOTTOM when it contains a
+     * site in that row. A set marked TOP is full, and one marked both spans
+     * the grid. With no virtual sites there is no backwash, so one
+     * structure at 4 bytes per site is enough. */
+    private final CompactUnionFind uf;
+    private boolean percolates;
 
     public Percolation(int N) {
-        // TODO: Fill in this constructor.
+        if (N <= 0 || N > MAX_N) {
+            throw new IllegalArgumentException("N must be in [1, " + MAX_N + "]: " + N);
+        }
+        this.N = N;
+        open = new long[(N * N + 63) >>> 6];
+        opened = new int[N * N / 8];
+        uf = new CompactUnionFind(N * N);
     }
 
     public void open(int row, int col) {
-        // TODO: Fill in this method.
+        int site = index(row, col);
+        if (isOpen(site)) {
+            return;
+        }
+        open[site >>> 6] |= 1L << site;
+        if (openSites < opened.length) {
+            opened[openSites] = site;
+        }
+        openSites += 1;
+        if (row == 0) {
+            uf.mark(site, TOP);
+        }
+        if (row == N - 1) {
+            uf.mark(site, BOTTOM);
+        }
+        connect(site, row - 1, col);
+        connect(site, row + 1, col);
+        connect(site, row, col - 1);
+        connect(site, row, col + 1);
+        if (uf.marks(site) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
     }
 
     public boolean isOpen(int row, int col) {
-        // TODO: Fill in this method.
-        return false;
+        return isOpen(index(row, col));
     }
 
     public boolean isFull(int row, int col) {
-        // TODO: Fill in this method.
-        return false;
+        int site = index(row, col);
+        return isOpen(site) && (uf.marks(site) & TOP) != 0;
     }
 
     public int numberOfOpenSites() {
-        // TODO: Fill in this method.
-        return 0;
+        return openSites;
     }
 
     public boolean percolates() {
-        // TODO: Fill in this method.
-        return false;
+        return percolates;
     }
 
-    // TODO: Add any useful helper methods (we highly recommend this!).
-    // TODO: Remove all TODO comments before submitting.
+    /**
+     * Closes every site again, as if this were a new Percolation(N), without
+     * allocating. While at most 1/8 of the sites are open, only the opened
+     * sites are touched: their bitset words and union-find entries. Beyond
+     * that, scattered writes cost more than clearing both arrays
+     * sequentially, so they are cleared in full.
+     */
+    public void reset() {
+        if (openSites <= opened.length) {
+            for (int i = 0; i < openSites; i += 1) {
+                open[opened[i] >>> 6] = 0L;
+            }
+            uf.reset(opened, openSites);
+        } else {
+            Arrays.fill(open, 0L);
+            uf.reset();
+        }
+        openSites = 0;
+        percolates = false;
+    }
+
+    private boolean isOpen(int site) {
+        return (open[site >>> 6] & 1L << site) != 0;
+    }
+
+    /* Joins SITE to the neighbor at (ROW, COL) if that neighbor exists and is open. */
+    private void connect(int site, int row, int col) {
+        if (row < 0 || row >= N || col < 0 || col >= N) {
+            return;
+        }
+        int neighbor = row * N + col;
+        if (isOpen(neighbor)) {
+            uf.union(site, neighbor);
+        }
+    }
+
+    private int index(int row, int col) {
+        if (row < 0 || row >= N || col < 0 || col >= N) {
+            throw new IndexOutOfBoundsException("(" + row + ", " + col + ") is outside a "
+                    + N + " x " + N + " grid");
+        }
+        return row * N + col;
+    }
 
 }
@@ -1,6 +1,15 @@
 import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 public class PercolationStats {
     private final double mean;
     private final double stddev;
@@ -26,6 +35,86 @@ public class PercolationStats {
         this.stddev = StdStats.stddev(ratio);
     }
 
+    /**
+     * Runs T trials on an N-by-N grid spread over THREADS threads, without
+     * touching the shared StdRandom.
+     *
+     * Each thread gets its own SplittableRandom, split in order from one
+     * made from SEED, and runs trials k, k + THREADS, k + 2 * THREADS, ...
+     * where k is its index. Which thread runs which trial, and the random
+     * numbers each trial sees, depend only on SEED and THREADS, so the
+     * results are the same on every run with the same two values.
+     */
+    public PercolationStats(int N, int T, long seed, int threads) {
+        if (N <= 0 || T <= 0 || threads <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.T = T;
+        double[] ratio = new double[T];
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int k = 0; k < threads; k += 1) {
+            SplittableRandom random = master.split();
+            int first = k;
+            workers.add(() -> {
+                Percolation p = new Percolation(N);
+                int[] order = new int[N * N];
+                for (int site = 0; site < order.length; site += 1) {
+                    order[site] = site;
+                }
+                for (int i = first; i < T; i += threads) {
+                    ratio[i] = trial(p, N, random, order);
+                    p.reset();
+                }
+                return null;
+            });
+        }
+        if (threads == 1) {
+            try {
+                workers.get(0).call();
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                for (Future<Void> f : pool.invokeAll(workers)) {
+                    f.get();
+                }
+            } catch (InterruptedException | ExecutionException ex) {
+                throw new RuntimeException(ex);
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        this.mean = StdStats.mean(ratio);
+        this.stddev = StdStats.stddev(ratio);
+    }
+
+    /* Opens the sites of P, a closed N-by-N grid, in a random order until it
+     * percolates and returns the fraction of sites open at that point.
+     *
+     * Drawing (row, col) pairs would keep hitting sites that are already
+     * open as the grid fills. Instead ORDER, which holds every site index
+     * 0 .. N*N-1, is shuffled in place with Fisher-Yates (as in
+     * RandomUtils.shuffle), and the sites are opened in that order, so
+     * every step opens a new site. The shuffle is done one step at a time
+     * as sites are needed, so the ~40% of the grid left closed when the
+     * system percolates is never shuffled. ORDER stays a permutation, so
+     * one buffer serves every trial on a thread. */
+    private static double trial(Percolation p, int N, SplittableRandom random, int[] order) {
+        int n = order.length;
+        for (int i = 0; !p.percolates(); i += 1) {
+            int r = i + random.nextInt(n - i);     // between i and n-1
+            int site = order[r];
+            order[r] = order[i];
+            order[i] = site;
+            p.open(site / N, site % N);
+        }
+        return ((double) p.numberOfOpenSites()) / (N * N);
+    }
+
     public double mean() {
         return mean;
     }
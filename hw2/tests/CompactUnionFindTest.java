@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompactUnionFindTest {
+
+    @Test
+    public void unionByRankTest() {
+        CompactUnionFind uf = new CompactUnionFind(8);
+        uf.union(0, 1);
+        assertThat(uf.find(0)).isEqualTo(1);
+        assertThat(uf.rank(0)).isEqualTo(1);
+        uf.union(2, 3);
+        uf.union(0, 2);
+        assertThat(uf.rank(3)).isEqualTo(2);
+        // A rank-0 set goes under the rank-2 root, whichever side it is on.
+        uf.union(3, 4);
+        assertThat(uf.find(4)).isEqualTo(uf.find(0));
+        assertThat(uf.rank(4)).isEqualTo(2);
+        assertThat(uf.connected(1, 4)).isTrue();
+        assertThat(uf.connected(1, 5)).isFalse();
+    }
+
+    @Test
+    public void marksMergeOnUnionTest() {
+        CompactUnionFind uf = new CompactUnionFind(6);
+        uf.mark(0, 1);
+        uf.mark(5, 2);
+        assertThat(uf.marks(0)).isEqualTo(1);
+        assertThat(uf.marks(1)).isEqualTo(0);
+        uf.union(0, 1);
+        uf.union(4, 5);
+        assertThat(uf.marks(1)).isEqualTo(1);
+        uf.union(1, 4);
+        assertThat(uf.marks(0)).isEqualTo(3);
+        assertThat(uf.marks(2)).isEqualTo(0);
+
+        // Marks and rank share one int per root without disturbing each other.
+        uf.mark(2, 1 << (CompactUnionFind.MARK_BITS - 1));
+        assertThat(uf.marks(2)).isEqualTo(1 << (CompactUnionFind.MARK_BITS - 1));
+        assertThat(uf.rank(2)).isEqualTo(0);
+        assertThrows(IllegalArgumentException.class, () -> uf.mark(2, 1 << CompactUnionFind.MARK_BITS));
+    }
+
+    @Test
+    public void resetTest() {
+        CompactUnionFind uf = new CompactUnionFind(4);
+        uf.union(0, 1);
+        uf.mark(2, 1);
+        uf.reset();
+        for (int i = 0; i < 4; i += 1) {
+            assertThat(uf.find(i)).isEqualTo(i);
+            assertThat(uf.marks(i)).isEqualTo(0);
+            assertThat(uf.rank(i)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void sparseResetTest() {
+        CompactUnionFind uf = new CompactUnionFind(100);
+        uf.union(10, 11);
+        uf.union(12, 11);
+        uf.mark(40, 1);
+        uf.find(12);
+        uf.reset(new int[]{10, 11, 12, 40}, 4);
+        for (int i = 0; i < 100; i += 1) {
+            assertThat(uf.find(i)).isEqualTo(i);
+            assertThat(uf.marks(i)).isEqualTo(0);
+            assertThat(uf.rank(i)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void illegalFindTest() {
+        CompactUnionFind uf = new CompactUnionFind(4);
+        assertThrows(IllegalArgumentException.class, () -> uf.find(4));
+        assertThrows(IllegalArgumentException.class, () -> uf.union(-1, 0));
+    }
+}
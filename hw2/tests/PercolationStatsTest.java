@@ -0,0 +1,30 @@
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class PercolationStatsTest {
+
+    @Test
+    public void sameSeedAndThreadsGiveSameResult() {
+        PercolationStats a = new PercolationStats(20, 50, 61, 4);
+        PercolationStats b = new PercolationStats(20, 50, 61, 4);
+        assertThat(b.mean()).isEqualTo(a.mean());
+        assertThat(b.stddev()).isEqualTo(a.stddev());
+    }
+
+    @Test
+    public void parallelThresholdIsNearKnownValue() {
+        // The percolation threshold of a square lattice is about 0.593.
+        PercolationStats ps = new PercolationStats(30, 200, 1, 3);
+        assertThat(ps.mean()).isWithin(0.02).of(0.593);
+        assertThat(ps.confidenceLow()).isLessThan(ps.mean());
+        assertThat(ps.confidenceHigh()).isGreaterThan(ps.mean());
+    }
+
+    @Test
+    public void singleThreadMatchesItselfAcrossRuns() {
+        PercolationStats a = new PercolationStats(10, 30, 7, 1);
+        PercolationStats b = new PercolationStats(10, 30, 7, 1);
+        assertThat(b.mean()).isEqualTo(a.mean());
+    }
+}
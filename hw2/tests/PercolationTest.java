@@ -78,6 +78,51 @@ public class PercolationTest {
         assertThat(p.percolates()).isTrue();
     }
 
+    @Test
+    public void resetTest() {
+        int N = 5;
+        Percolation p = new Percolation(N);
+        for (int r = 0; r < N; r += 1) {
+            p.open(r, 2);
+        }
+        assertThat(p.percolates()).isTrue();
+        p.reset();
+        assertThat(p.numberOfOpenSites()).isEqualTo(0);
+        assertThat(p.percolates()).isFalse();
+        assertThat(getState(N, p)).isEqualTo(getState(N, new Percolation(N)));
+
+        // The reset grid must behave like a new one, backwash included.
+        p.open(0, 0);
+        p.open(4, 4);
+        p.open(3, 4);
+        assertThat(p.isFull(0, 0)).isTrue();
+        assertThat(p.isFull(4, 4)).isFalse();
+        assertThat(p.percolates()).isFalse();
+    }
+
+    @Test
+    public void sparseResetTest() {
+        // 5 of 400 sites open, so reset() only touches those 5.
+        int N = 20;
+        Percolation p = new Percolation(N);
+        int[][] sites = {{0, 3}, {1, 3}, {2, 3}, {19, 0}, {7, 7}};
+        for (int[] site : sites) {
+            p.open(site[0], site[1]);
+        }
+        assertThat(p.isFull(2, 3)).isTrue();
+        p.reset();
+        assertThat(p.numberOfOpenSites()).isEqualTo(0);
+        assertThat(getState(N, p)).isEqualTo(getState(N, new Percolation(N)));
+
+        // Afterwards it behaves like a new grid: a full column percolates.
+        for (int r = 0; r < N; r += 1) {
+            assertThat(p.percolates()).isFalse();
+            p.open(r, 5);
+        }
+        assertThat(p.percolates()).isTrue();
+        assertThat(p.isFull(2, 3)).isFalse();
+    }
+
     // TODO: Using the given tests above as a template,
     //       write some more tests and delete the fail() line
     @Test
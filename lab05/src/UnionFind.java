@@ -1,37 +1,57 @@
+import java.util.Arrays;
+
 public class UnionFind {
-    // TODO: Instance variables
+    /* parent[v] is v's parent, or the negative size of v's set if v is a root. */
+    private final int[] parent;
+    /* Every item whose entry has changed since construction or the last
+       reset(), in dirty[0, dirtyCount). An entry first changes while it is
+       a singleton root (find() only rewrites non-roots), so an item is
+       logged exactly when its entry leaves -1. */
+    private final int[] dirty;
+    private int dirtyCount;
 
     /* Creates a UnionFind data structure holding N items. Initially, all
        items are in disjoint sets. */
     public UnionFind(int N) {
-        // TODO: YOUR CODE HERE
+        parent = new int[N];
+        dirty = new int[N];
+        for (int i = 0; i < N; i += 1) {
+            parent[i] = -1;
+        }
     }
 
     /* Returns the size of the set V belongs to. */
     public int sizeOf(int v) {
-        // TODO: YOUR CODE HERE
-        return -1;
+        return -parent[find(v)];
     }
 
     /* Returns the parent of V. If V is the root of a tree, returns the
        negative size of the tree for which V is the root. */
     public int parent(int v) {
-        // TODO: YOUR CODE HERE
-        return -1;
+        validate(v);
+        return parent[v];
     }
 
     /* Returns true if nodes/vertices V1 and V2 are connected. */
     public boolean connected(int v1, int v2) {
-        // TODO: YOUR CODE HERE
-        return false;
+        return find(v1) == find(v2);
     }
 
     /* Returns the root of the set V belongs to. Path-compression is employed
        allowing for fast search-time. If invalid items are passed into this
        function, throw an IllegalArgumentException. */
     public int find(int v) {
-        // TODO: YOUR CODE HERE
-        return -1;
+        validate(v);
+        int root = v;
+        while (parent[root] >= 0) {
+            root = parent[root];
+        }
+        while (v != root) {
+            int next = parent[v];
+            parent[v] = root;
+            v = next;
+        }
+        return root;
     }
 
     /* Connects two items V1 and V2 together by connecting their respective
@@ -40,7 +60,51 @@ public class UnionFind {
        root to V2's root. Union-ing an item with itself or items that are
        already connected should not change the structure. */
     public void union(int v1, int v2) {
-        // TODO: YOUR CODE HERE
+        int r1 = find(v1);
+        int r2 = find(v2);
+        if (r1 == r2) {
+            return;
+        }
+        markDirty(r1);
+        markDirty(r2);
+        int size = parent[r1] + parent[r2];
+        if (-parent[r1] > -parent[r2]) {
+            parent[r2] = r1;
+            parent[r1] = size;
+        } else {
+            parent[r1] = r2;
+            parent[r2] = size;
+        }
+    }
+
+    /* Puts every item back in its own set. When few items have been
+       unioned since the last reset, only those are touched, so a UnionFind
+       can be reused after a few unions for much less than the cost of a new
+       one. Writing to scattered items is several times slower per item than
+       a sequential fill, so past 1/8 of the items the whole array is
+       refilled instead. */
+    public void reset() {
+        if (dirtyCount > parent.length / 8) {
+            Arrays.fill(parent, -1);
+        } else {
+            for (int i = 0; i < dirtyCount; i += 1) {
+                parent[dirty[i]] = -1;
+            }
+        }
+        dirtyCount = 0;
+    }
+
+    private void markDirty(int root) {
+        if (parent[root] == -1) {
+            dirty[dirtyCount] = root;
+            dirtyCount += 1;
+        }
+    }
+
+    private void validate(int v) {
+        if (v < 0 || v >= parent.length) {
+            throw new IllegalArgumentException(v + " is not an item in [0, " + parent.length + ")");
+        }
     }
 
 }
@@ -86,6 +86,38 @@ public class UnionFindTest {
      * of all methods in your implementation.
      */
 
-}
+    /**
+     * Checks that reset() puts every item back in its own set, and that the structure
+     * behaves like a new one afterwards.
+     */
+    @Test
+    public void resetTest() {
+        UnionFind uf = new UnionFind(10);
+        uf.union(0, 1);
+        uf.union(2, 3);
+        uf.union(0, 2);
+        uf.union(7, 8);
+        uf.find(0);
+        uf.reset();
+        for (int i = 0; i < 10; i += 1) {
+            assertThat(uf.parent(i)).isEqualTo(-1);
+            assertThat(uf.sizeOf(i)).isEqualTo(1);
+        }
+
+        uf.union(0, 1);
+        assertThat(uf.find(0)).isEqualTo(1);
+        assertThat(uf.sizeOf(0)).isEqualTo(2);
+        uf.reset();
+        assertThat(uf.connected(0, 1)).isFalse();
 
+        // Few unions in a large structure take the path that only touches those items.
+        UnionFind big = new UnionFind(1000);
+        big.union(3, 4);
+        big.union(5, 4);
+        big.reset();
+        for (int i = 0; i < 1000; i += 1) {
+            assertThat(big.parent(i)).isEqualTo(-1);
+        }
+    }
 
+}
@@ -1,7 +1,14 @@
 package deque;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * CS61B Project 1B: ArrayDeque61B
@@ -15,23 +22,31 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
      * size: 当前元素数量
      * nextFirst: 下一个要添加到首部的位置（空位）
      * nextLast: 下一个要添加到尾部的位置（空位）
+     * modCount: 结构修改次数，迭代器用它实现fail-fast
      */
     private T[] items;
     private int size;
     private int nextFirst;
     private int nextLast;
+    private int modCount;
 
     /**
-     * 【要点2】初始容量和扩缩容因子
-     * INITIAL_CAPACITY: 初始数组大小（通常为8）
-     * REFACTOR: 扩容因子（2倍）
-     * MIN_CAPACITY: 最小容量，防止过度缩容
-     * USAGE_RATIO: 使用率阈值，低于此值触发缩容
+     * 【要点2】初始容量和扩缩容策略
+     * DEFAULT_INITIAL_CAPACITY: 默认初始数组大小（8）
+     * policy: 扩缩容策略（扩容因子、缩容阈值、最小容量），见ResizePolicy
+     * 默认策略ResizePolicy.DEFAULT与原来的硬编码常量行为相同：满了扩2倍，使用率低于0.25缩一半，不小于8
+     * 注意：容量必须始终是2的幂，索引计算依赖位掩码（见要点4、5）
      */
-    private static final int INITIAL_CAPACITY = 8;
-    private static final int REFACTOR = 2;
-    private static final int MIN_CAPACITY = 16;
-    private static final double USAGE_RATIO = 0.25;
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+    private final ResizePolicy policy;
+
+    /**
+     * 【要点2b】统计计数器 - 方便在生产环境中调优扩缩容策略
+     * resizeCount: resize发生的次数
+     * copiedElements: resize时复制的元素总数（乘以引用大小即为复制的字节数）
+     */
+    private long resizeCount;
+    private long copiedElements;
 
     /**
      * 【要点3】构造函数 - 初始化循环数组
@@ -39,43 +54,60 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
      * 通常设置为相邻位置，形成"空"的循环结构
      */
     public ArrayDeque61B() {
-        items = (T[]) new Object[INITIAL_CAPACITY];
+        this(DEFAULT_INITIAL_CAPACITY, ResizePolicy.DEFAULT);
+    }
+
+    /**
+     * 【要点3b】指定初始容量 - 已知大概规模时可以避免一路扩容
+     * initialCapacity会向上取整为2的幂
+     */
+    public ArrayDeque61B(int initialCapacity) {
+        this(initialCapacity, ResizePolicy.DEFAULT);
+    }
+
+    public ArrayDeque61B(int initialCapacity, ResizePolicy policy) {
+        if (initialCapacity < 1 || initialCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("initialCapacity must be in [1, 2^30]: " + initialCapacity);
+        }
+        int capacity = initialCapacity == 1 ? 1 : Integer.highestOneBit(initialCapacity - 1) << 1;
+        items = (T[]) new Object[capacity];
         size = 0;
         nextFirst = 0;
-        nextLast = 1;
+        nextLast = 1 & (capacity - 1);
+        this.policy = policy;
     }
 
     /**
      * 【要点4】辅助方法 - 计算循环数组的前一个索引
-     * 使用模运算实现循环：(index - 1 + length) % length
-     * 加length是为了处理负数情况
+     * 容量是2的幂，所以用位掩码代替模运算：(index - 1) & (length - 1)
+     * index为0时，-1 & mask 恰好等于 length - 1，不需要再加length
+     * 位与比 % 的整数除法快得多，热循环中差别明显
      */
     private int minusOne(int index) {
-        return (index - 1 + items.length) % items.length;
+        return (index - 1) & (items.length - 1);
     }
 
     /**
      * 【要点5】辅助方法 - 计算循环数组的后一个索引
-     * 使用模运算实现循环：(index + 1) % length
+     * 同样使用位掩码：(index + 1) & (length - 1)
      */
     private int plusOne(int index) {
-        return (index + 1) % items.length;
+        return (index + 1) & (items.length - 1);
     }
 
     /**
      * 【要点6】扩容操作 - 当数组满时扩大容量
      * 核心难点：需要重新排列元素，保持逻辑顺序
      * 策略：将所有元素从索引0开始连续存放
+     * 用copyOut一次性复制（最多两次System.arraycopy）
      */
     private void resize(int capacity) {
+        resizeCount++;
+        copiedElements += size;
         T[] newItems = (T[]) new Object[capacity];
 
         // 从第一个真实元素开始复制
-        int oldIndex = plusOne(nextFirst);
-        for (int newIndex = 0; newIndex < size; newIndex++) {
-            newItems[newIndex] = items[oldIndex];
-            oldIndex = plusOne(oldIndex);
-        }
+        copyOut(newItems, 0, size);
 
         // 重新设置指针
         items = newItems;
@@ -89,19 +121,19 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
      */
     private void checkResize() {
         if (size == items.length) {
-            resize(items.length * REFACTOR);
+            resize(policy.grownCapacity(items.length, size + 1));
         }
     }
 
     /**
      * 【要点8】检查是否需要缩容（内存优化）
-     * 当数组使用率低且容量大于最小值时缩容
-     * 避免频繁的扩缩容（只在使用率很低时触发）
+     * 当数组使用率低于policy的阈值且缩容后不小于最小容量时缩容
+     * 避免频繁的扩缩容（ResizePolicy保证缩容阈值 < 1/扩容因子）
      */
     private void checkDownsize() {
-        double usageRatio = (double) size / items.length;
-        if (items.length >= MIN_CAPACITY && usageRatio < USAGE_RATIO) {
-            resize(items.length / REFACTOR);
+        int capacity = policy.shrunkCapacity(items.length, size);
+        if (capacity != items.length) {
+            resize(capacity);
         }
     }
 
@@ -120,6 +152,7 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
         items[nextFirst] = x;
         nextFirst = minusOne(nextFirst);
         size++;
+        modCount++;
     }
 
     /**
@@ -137,16 +170,18 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
         items[nextLast] = x;
         nextLast = plusOne(nextLast);
         size++;
+        modCount++;
     }
 
     /**
      * 【要点11】toList - 转换为ArrayList
      * 注意：按逻辑顺序添加，不是物理顺序
-     * 从第一个真实元素开始，循环遍历size次
+     * 从第一个真实元素开始，循环遍历size次；预先按size分配容量
+     * items本身就是T[]，所以不需要unchecked转型
      */
     @Override
     public List<T> toList() {
-        List<T> returnList = new ArrayList<>();
+        List<T> returnList = new ArrayList<>(size);
         int index = plusOne(nextFirst);  // 第一个真实元素
         for (int i = 0; i < size; i++) {
             returnList.add(items[index]);
@@ -195,6 +230,7 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
         items[firstIndex] = null;  // 避免loitering
         nextFirst = firstIndex;
         size--;
+        modCount++;
 
         checkDownsize();
         return item;
@@ -216,6 +252,7 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
         items[lastIndex] = null;  // 避免loitering
         nextLast = lastIndex;
         size--;
+        modCount++;
 
         checkDownsize();
         return item;
@@ -225,7 +262,7 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
      * 【要点16】get - 获取第index个元素（逻辑索引）
      * 时间复杂度：O(1) - ArrayDeque的优势！
      * 关键：将逻辑索引转换为物理索引
-     * 公式：physicalIndex = (nextFirst + 1 + index) % items.length
+     * 公式：physicalIndex = (nextFirst + 1 + index) & (items.length - 1)
      */
     @Override
     public T get(int index) {
@@ -233,7 +270,7 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
             return null;
         }
 
-        int physicalIndex = (plusOne(nextFirst) + index) % items.length;
+        int physicalIndex = (nextFirst + 1 + index) & (items.length - 1);
         return items[physicalIndex];
     }
 
@@ -252,13 +289,15 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
 
     /**
      * 【要点18】递归辅助方法
-     * 每次递归将索引向后移动一位
+     * 每次递归向后跳剩余距离的一半（而不是一位）
+     * 递归深度O(log index)，index很大时也不会StackOverflowError
      */
     private T getRecursiveHelper(int physicalIndex, int logicalIndex) {
         if (logicalIndex == 0) {
             return items[physicalIndex];
         }
-        return getRecursiveHelper(plusOne(physicalIndex), logicalIndex - 1);
+        int step = (logicalIndex + 1) / 2;
+        return getRecursiveHelper((physicalIndex + step) & (items.length - 1), logicalIndex - step);
     }
 
     /**
@@ -284,29 +323,259 @@ public class ArrayDeque61B<T> implements Deque61B<T> {
 
     /**
      * 【要点20】可选：实现equals方法
-     * 比较两个Deque的内容是否相同
+     * 比较两个Deque的内容是否相同（与java.util.List相同的约定，见DequeContent）
+     * 对方也是ArrayDeque61B时：按数组区段比较，两个循环数组最多切成3段，每段一次Arrays.equals
+     * 其他实现：用迭代器同时遍历，O(n)；不能用other.get(i)，对链表来说是O(n²)
      */
+    @Override
     public boolean equals(Object o) {
-        if (this == o) {
-            return true;
+        if (o instanceof ArrayDeque61B) {
+            return this == o || regionEquals((ArrayDeque61B<?>) o);
         }
-        if (o == null) {
+        return DequeContent.equals(this, o);
+    }
+
+    private boolean regionEquals(ArrayDeque61B<?> other) {
+        if (size != other.size) {
             return false;
         }
-        if (!(o instanceof Deque61B)) {
-            return false;
+        int i = plusOne(nextFirst);
+        int j = other.plusOne(other.nextFirst);
+        int remaining = size;
+        while (remaining > 0) {
+            int run = Math.min(remaining, Math.min(items.length - i, other.items.length - j));
+            if (!Arrays.equals(items, i, i + run, other.items, j, j + run)) {
+                return false;
+            }
+            i = (i + run) & (items.length - 1);
+            j = (j + run) & (other.items.length - 1);
+            remaining -= run;
         }
+        return true;
+    }
 
-        Deque61B<?> other = (Deque61B<?>) o;
-        if (this.size != other.size()) {
-            return false;
+    /**
+     * 【要点20b】hashCode必须和equals一致
+     * 与List.hashCode算法相同，所以内容相同的任意Deque61B（以及List）哈希值相同
+     */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        int index = plusOne(nextFirst);
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + items[index].hashCode();
+            index = plusOne(index);
+        }
+        return hash;
+    }
+
+    /**
+     * 【要点21】批量复制辅助方法 - 把前count个元素按逻辑顺序复制到dest
+     * 元素在循环数组中最多分成两段：[first, length) 和 [0, ...)
+     * 所以最多两次System.arraycopy
+     */
+    private void copyOut(Object[] dest, int destPos, int count) {
+        int first = plusOne(nextFirst);
+        int head = Math.min(count, items.length - first);
+        System.arraycopy(items, first, dest, destPos, head);
+        System.arraycopy(items, 0, dest, destPos + head, count - head);
+    }
+
+    /**
+     * 【要点22】确保容量至少为needed
+     * 一次算出最终容量（保持2的幂），只resize一次
+     */
+    private void ensureCapacity(int needed) {
+        int capacity = policy.grownCapacity(items.length, needed);
+        if (capacity != items.length) {
+            resize(capacity);
         }
+    }
 
-        for (int i = 0; i < size; i++) {
-            if (!this.get(i).equals(other.get(i))) {
+    /**
+     * 【要点23】addAllLast - 批量添加到尾部
+     * 先一次性扩容，再从nextLast开始复制
+     * 写入区域同样最多跨越一次数组末尾，所以最多两次arraycopy
+     */
+    @Override
+    public void addAllLast(T[] xs) {
+        copyIn(xs);
+    }
+
+    /**
+     * Collection版本：toArray()返回Object[]，直接走同一条复制路径
+     * 元素都来自Collection<? extends T>，所以存进items是类型安全的
+     */
+    @Override
+    public void addAllLast(Collection<? extends T> xs) {
+        copyIn(xs.toArray());
+    }
+
+    private void copyIn(Object[] xs) {
+        int n = xs.length;
+        ensureCapacity(size + n);
+
+        int head = Math.min(n, items.length - nextLast);
+        System.arraycopy(xs, 0, items, nextLast, head);
+        System.arraycopy(xs, head, items, 0, n - head);
+
+        nextLast = (nextLast + n) & (items.length - 1);
+        size += n;
+        modCount++;
+    }
+
+    /**
+     * 【要点24】removeFirst(dest, n) - 批量从头部移除
+     * 复制出去后把原位置置null（避免loitering），同样最多两段
+     * 缩容时一次算出最终容量，避免连续多次resize
+     */
+    @Override
+    public int removeFirst(T[] dest, int n) {
+        int count = Math.min(n, size);
+        if (count <= 0) {
+            return 0;
+        }
+        copyOut(dest, 0, count);
+
+        int first = plusOne(nextFirst);
+        int head = Math.min(count, items.length - first);
+        Arrays.fill(items, first, first + head, null);
+        Arrays.fill(items, 0, count - head, null);
+
+        nextFirst = (nextFirst + count) & (items.length - 1);
+        size -= count;
+        modCount++;
+
+        checkDownsize();
+        return count;
+    }
+
+    /**
+     * 【要点25】toArray - 按逻辑顺序复制出一个新数组
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        copyOut(result, 0, size);
+        return result;
+    }
+
+    /**
+     * 【要点25b】统计计数器的访问方法
+     */
+    public long resizeCount() {
+        return resizeCount;
+    }
+
+    public long copiedElements() {
+        return copiedElements;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    /**
+     * 【要点26】iterator - 按逻辑顺序遍历，不复制数组
+     * fail-fast：遍历期间deque被修改则抛ConcurrentModificationException
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new ArrayDequeIterator();
+    }
+
+    private class ArrayDequeIterator implements Iterator<T> {
+        private int index = 0;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = items[(nextFirst + 1 + index) & (items.length - 1)];
+            index++;
+            return item;
+        }
+    }
+
+    /**
+     * 【要点27】spliterator - 可拆分的迭代器，供stream().parallel()使用
+     * 每个spliterator负责逻辑区间[origin, fence)，trySplit从中间一分为二
+     * 拆分只是划分下标区间，不复制任何元素
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ArrayDequeSpliterator(0, size, modCount);
+    }
+
+    private class ArrayDequeSpliterator implements Spliterator<T> {
+        private int origin;
+        private final int fence;
+        private final int expectedModCount;
+
+        ArrayDequeSpliterator(int origin, int fence, int expectedModCount) {
+            this.origin = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int mid = (origin + fence) >>> 1;
+            if (mid <= origin) {
+                return null;
+            }
+            ArrayDequeSpliterator prefix = new ArrayDequeSpliterator(origin, mid, expectedModCount);
+            origin = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (origin >= fence) {
                 return false;
             }
+            checkForComodification();
+            action.accept(items[(nextFirst + 1 + origin) & (items.length - 1)]);
+            origin++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            T[] a = items;
+            int mask = a.length - 1;
+            int first = nextFirst + 1;
+            for (int i = origin; i < fence; i++) {
+                action.accept(a[(first + i) & mask]);
+            }
+            origin = fence;
+            checkForComodification();
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
         }
-        return true;
     }
-}
\ No newline at end of file
+}
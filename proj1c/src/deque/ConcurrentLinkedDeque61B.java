@@ -0,0 +1,136 @@
+package deque;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe, lock-free Deque61B for producer/consumer pipelines.
+ *
+ * Every operation delegates to {@link ConcurrentLinkedDeque}, whose add and
+ * remove at either end are non-blocking CAS operations. Threads at the two
+ * ends of the deque never wait on a shared lock. That is the difference from
+ * wrapping an {@link ArrayDeque61B} in {@code synchronized}.
+ *
+ * Differences from the single-threaded deques:
+ * - size() reads an atomic counter, so it is O(1). While other threads are
+ *   adding or removing, it is only an estimate.
+ * - get(i), toList() and iteration are weakly consistent. They never throw
+ *   ConcurrentModificationException. They may or may not see changes made
+ *   while they run. get(i) is O(i).
+ */
+public class ConcurrentLinkedDeque61B<T> implements Deque61B<T> {
+
+    private final ConcurrentLinkedDeque<T> items;
+    private final AtomicInteger size;
+
+    public ConcurrentLinkedDeque61B() {
+        items = new ConcurrentLinkedDeque<>();
+        size = new AtomicInteger();
+    }
+
+    @Override
+    public void addFirst(T x) {
+        items.offerFirst(x);
+        size.incrementAndGet();
+    }
+
+    @Override
+    public void addLast(T x) {
+        items.offerLast(x);
+        size.incrementAndGet();
+    }
+
+    @Override
+    public List<T> toList() {
+        return new ArrayList<>(items);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * Returns the number of items. A remove can decrement the counter before
+     * the matching add increments it, so the value is clamped at zero.
+     */
+    @Override
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    @Override
+    public T removeFirst() {
+        T item = items.pollFirst();
+        if (item != null) {
+            size.decrementAndGet();
+        }
+        return item;
+    }
+
+    @Override
+    public T removeLast() {
+        T item = items.pollLast();
+        if (item != null) {
+            size.decrementAndGet();
+        }
+        return item;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0) {
+            return null;
+        }
+        int i = 0;
+        for (T item : items) {
+            if (i == index) {
+                return item;
+            }
+            i++;
+        }
+        return null;
+    }
+
+    /* Recursing over a weakly consistent iterator buys nothing; same as get. */
+    @Override
+    public T getRecursive(int index) {
+        return get(index);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return items.toArray();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return items.iterator();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return items.spliterator();
+    }
+
+    /** Equal to any Deque61B with the same items in the same order; see DequeContent.
+     *  Like iteration, this is weakly consistent while other threads modify either deque. */
+    @Override
+    public boolean equals(Object o) {
+        return DequeContent.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return DequeContent.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentLinkedDeque61B: " + items.toString();
+    }
+}
@@ -1,12 +1,15 @@
 package deque;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Created by hug on 2/4/2017. Methods are provided in the suggested order
  * that they should be completed.
  */
-public interface Deque61B<T> {
+public interface Deque61B<T> extends Iterable<T> {
 
     /**
      * Add {@code x} to the front of the deque. Assumes {@code x} is never null.
@@ -77,4 +80,70 @@ public interface Deque61B<T> {
      * @return element at {@code index} in the deque
      */
     T getRecursive(int index);
+
+    /**
+     * Adds every item of {@code xs} to the back of the deque, in array order.
+     * Assumes no item is null. Implementations may override this with a
+     * faster bulk copy.
+     *
+     * @param xs items to add
+     */
+    default void addAllLast(T[] xs) {
+        for (T x : xs) {
+            addLast(x);
+        }
+    }
+
+    /**
+     * Adds every item of {@code xs} to the back of the deque, in iteration
+     * order. Assumes no item is null.
+     *
+     * @param xs items to add
+     */
+    default void addAllLast(Collection<? extends T> xs) {
+        for (T x : xs) {
+            addLast(x);
+        }
+    }
+
+    /**
+     * Removes up to {@code n} items from the front of the deque and stores
+     * them, in order, into {@code dest} starting at index 0.
+     *
+     * @param dest array to fill; must have room for {@code n} items
+     * @param n maximum number of items to remove
+     * @return the number of items actually removed, {@code min(n, size())}
+     */
+    default int removeFirst(T[] dest, int n) {
+        int count = Math.min(n, size());
+        for (int i = 0; i < count; i++) {
+            dest[i] = removeFirst();
+        }
+        return count;
+    }
+
+    /**
+     * Returns a sequential Stream over the deque, front to back, without
+     * copying it. Call {@code parallel()} on the result to split the work
+     * using the deque's {@link #spliterator()}.
+     *
+     * @return a stream of the items in the deque.
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns an array copy of the deque, front to back. Does not alter the
+     * deque.
+     *
+     * @return a new array holding every item in the deque.
+     */
+    default Object[] toArray() {
+        Object[] result = new Object[size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = get(i);
+        }
+        return result;
+    }
 }
\ No newline at end of file
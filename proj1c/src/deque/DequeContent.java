@@ -0,0 +1,56 @@
+package deque;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Shared equals/hashCode for Deque61B implementations.
+ *
+ * Every Deque61B uses the same contract as java.util.List: two deques are
+ * equal if they hold equal items in the same order, whatever their classes,
+ * and hashCode is computed exactly like List.hashCode. Having one contract
+ * keeps equals symmetric across implementations. For example,
+ * arrayDeque.equals(linkedDeque) and linkedDeque.equals(arrayDeque) always
+ * agree.
+ *
+ * Both methods walk the two deques with iterators, so they are O(n) for
+ * any pair of implementations. Calling get(i) instead would make a linked
+ * deque O(n^2).
+ */
+final class DequeContent {
+
+    private DequeContent() {
+    }
+
+    /** Returns whether {@code o} is a Deque61B with the same items as {@code deque}, in order. */
+    static boolean equals(Deque61B<?> deque, Object o) {
+        if (deque == o) {
+            return true;
+        }
+        if (!(o instanceof Deque61B)) {
+            return false;
+        }
+        Deque61B<?> other = (Deque61B<?>) o;
+        if (deque.size() != other.size()) {
+            return false;
+        }
+        Iterator<?> a = deque.iterator();
+        Iterator<?> b = other.iterator();
+        while (a.hasNext() && b.hasNext()) {
+            if (!Objects.equals(a.next(), b.next())) {
+                return false;
+            }
+        }
+        // Sizes matched, but a concurrent deque may have changed since.
+        return a.hasNext() == b.hasNext();
+    }
+
+    /** Returns the List.hashCode of the items in {@code deque}. */
+    static int hashCode(Iterable<?> deque) {
+        int hash = 1;
+        for (Object item : deque) {
+            hash = 31 * hash + Objects.hashCode(item);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,235 @@
+package deque;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A circular-array deque specialized for primitive {@code double}s.
+ *
+ * Same layout and resize policy as {@link ArrayDeque61B}, but items are stored
+ * in a {@code double[]} and every method takes or returns a {@code double},
+ * so hot loops such as {@code gh2.GuitarString#tic()} never box a value.
+ *
+ * Since a {@code double} cannot be {@code null}, removing from an empty deque
+ * throws {@link NoSuchElementException} and an out-of-range {@link #get(int)}
+ * throws {@link IndexOutOfBoundsException}.
+ *
+ * {@link #ring()}, {@link #firstIndex()}, {@link #rotate(int)} and
+ * {@link #reset(int)} give direct access to the backing array, for block
+ * algorithms that would otherwise make a method call per item.
+ */
+public class DoubleArrayDeque61B {
+
+    private double[] items;
+    private int size;
+    private int nextFirst;
+    private int nextLast;
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int REFACTOR = 2;
+    private static final int MIN_CAPACITY = 16;
+    private static final double USAGE_RATIO = 0.25;
+
+    public DoubleArrayDeque61B() {
+        items = new double[INITIAL_CAPACITY];
+        size = 0;
+        nextFirst = 0;
+        nextLast = 1;
+    }
+
+    /**
+     * Creates an empty deque with room for {@code initialCapacity} items
+     * before it first resizes. The capacity is rounded up to a power of two.
+     */
+    public DoubleArrayDeque61B(int initialCapacity) {
+        if (initialCapacity < 1 || initialCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("initialCapacity must be in [1, 2^30]: " + initialCapacity);
+        }
+        int capacity = initialCapacity == 1 ? 1 : Integer.highestOneBit(initialCapacity - 1) << 1;
+        items = new double[capacity];
+        size = 0;
+        nextFirst = 0;
+        nextLast = 1 & (capacity - 1);
+    }
+
+    /* Capacity is always a power of two, so wrapping is a mask, not a %. */
+    private int minusOne(int index) {
+        return (index - 1) & (items.length - 1);
+    }
+
+    private int plusOne(int index) {
+        return (index + 1) & (items.length - 1);
+    }
+
+    /**
+     * Copies the items into a new array of the given capacity, starting at
+     * index 0, in logical order.
+     */
+    private void resize(int capacity) {
+        double[] newItems = new double[capacity];
+
+        int oldIndex = plusOne(nextFirst);
+        for (int newIndex = 0; newIndex < size; newIndex++) {
+            newItems[newIndex] = items[oldIndex];
+            oldIndex = plusOne(oldIndex);
+        }
+
+        items = newItems;
+        nextFirst = capacity - 1;
+        nextLast = size;
+    }
+
+    private void checkResize() {
+        if (size == items.length) {
+            resize(items.length * REFACTOR);
+        }
+    }
+
+    private void checkDownsize() {
+        double usageRatio = (double) size / items.length;
+        if (items.length >= MIN_CAPACITY && usageRatio < USAGE_RATIO) {
+            resize(items.length / REFACTOR);
+        }
+    }
+
+    public void addFirst(double x) {
+        checkResize();
+        items[nextFirst] = x;
+        nextFirst = minusOne(nextFirst);
+        size++;
+    }
+
+    public void addLast(double x) {
+        checkResize();
+        items[nextLast] = x;
+        nextLast = plusOne(nextLast);
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes and returns the front item.
+     *
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public double removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("deque is empty");
+        }
+
+        int firstIndex = plusOne(nextFirst);
+        double item = items[firstIndex];
+        nextFirst = firstIndex;
+        size--;
+
+        checkDownsize();
+        return item;
+    }
+
+    /**
+     * Removes and returns the back item.
+     *
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public double removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("deque is empty");
+        }
+
+        int lastIndex = minusOne(nextLast);
+        double item = items[lastIndex];
+        nextLast = lastIndex;
+        size--;
+
+        checkDownsize();
+        return item;
+    }
+
+    /**
+     * Returns the item at logical position {@code index}. O(1).
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is not in [0, size)
+     */
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+
+        int physicalIndex = (nextFirst + 1 + index) & (items.length - 1);
+        return items[physicalIndex];
+    }
+
+    /**
+     * Returns the array the items are stored in. Item {@code i} is at
+     * {@code (firstIndex() + i) & (ring().length - 1)}; the length is a power
+     * of two. Adds and removes may replace the array, so fetch it again
+     * after calling them. rotate() and reset() never do.
+     */
+    public double[] ring() {
+        return items;
+    }
+
+    /** Returns the index in {@link #ring()} of the front item. */
+    public int firstIndex() {
+        return plusOne(nextFirst);
+    }
+
+    /**
+     * Does what {@code n} rounds of {@code addLast(removeFirst())} would do
+     * to the ends of the deque, but moves no values: the first {@code n}
+     * items are dropped and the {@code n} slots of {@link #ring()} after the
+     * back become the new back items. The caller writes those slots
+     * directly. The size and the array never change.
+     *
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public void rotate(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be non-negative: " + n);
+        }
+        nextFirst = (nextFirst + n) & (items.length - 1);
+        nextLast = (nextLast + n) & (items.length - 1);
+    }
+
+    /**
+     * Makes the deque hold {@code ring()[0, n)}, front first, keeping the
+     * values already there, so a caller can replace every item with one
+     * block copy into {@link #ring()}. The array never changes.
+     *
+     * @throws IllegalArgumentException if {@code n} is not in [0, capacity]
+     */
+    public void reset(int n) {
+        if (n < 0 || n > items.length) {
+            throw new IllegalArgumentException("n must be in [0, " + items.length + "]: " + n);
+        }
+        size = n;
+        nextFirst = items.length - 1;
+        nextLast = n & (items.length - 1);
+    }
+
+    /**
+     * Returns a boxed List copy of the deque, mainly for tests and debugging.
+     */
+    public List<Double> toList() {
+        List<Double> returnList = new ArrayList<>();
+        int index = plusOne(nextFirst);
+        for (int i = 0; i < size; i++) {
+            returnList.add(items[index]);
+            index = plusOne(index);
+        }
+        return returnList;
+    }
+
+    @Override
+    public String toString() {
+        return "DoubleArrayDeque61B: " + toList().toString();
+    }
+}
@@ -1,7 +1,12 @@
 package deque;
 
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 public class LinkedListDeque61B<T> implements Deque61B<T> {
     /**
@@ -25,9 +30,11 @@ public class LinkedListDeque61B<T> implements Deque61B<T> {
      * sentinel.next 指向第一个真实节点
      * sentinel.prev 指向最后一个真实节点
      * 空队列时：sentinel.next == sentinel.prev == sentinel
+     * modCount: 结构修改次数，迭代器用它实现fail-fast
      */
     private Node sentinel;
     private int size;
+    private int modCount;
 
     /**
      * 【要点3】构造函数 - 初始化哨兵节点为循环结构
@@ -49,6 +56,7 @@ public class LinkedListDeque61B<T> implements Deque61B<T> {
         sentinel.next.prev = newNode;  // 原第一个节点的prev指向新节点
         sentinel.next = newNode;        // sentinel的next指向新节点
         size++;
+        modCount++;
     }
 
     /**
@@ -61,6 +69,7 @@ public class LinkedListDeque61B<T> implements Deque61B<T> {
         sentinel.prev.next = newNode;  // 原最后节点的next指向新节点
         sentinel.prev = newNode;        // sentinel的prev指向新节点
         size++;
+        modCount++;
     }
 
     /**
@@ -115,6 +124,7 @@ public class LinkedListDeque61B<T> implements Deque61B<T> {
         first.next.prev = sentinel;
 
         size--;
+        modCount++;
         return item;
     }
 
@@ -137,12 +147,14 @@ public class LinkedListDeque61B<T> implements Deque61B<T> {
         last.prev.next = sentinel;
 
         size--;
+        modCount++;
         return item;
     }
 
     /**
      * 【要点11】get - 迭代方式获取第index个元素
-     * 时间复杂度：O(n)
+     * 时间复杂度：O(min(index, size - index))
+     * 从离index更近的一端开始走：前半段从sentinel.next向后，后半段从sentinel.prev向前
      * 注意：index从0开始，越界返回null
      */
     @Override
@@ -151,9 +163,16 @@ public class LinkedListDeque61B<T> implements Deque61B<T> {
             return null;
         }
 
-        Node current = sentinel.next;
-        for (int i = 0; i < index; i++) {
-            current = current.next;
+        if (index < size / 2) {
+            Node current = sentinel.next;
+            for (int i = 0; i < index; i++) {
+                current = current.next;
+            }
+            return current.item;
+        }
+        Node current = sentinel.prev;
+        for (int i = size - 1; i > index; i--) {
+            current = current.prev;
         }
         return current.item;
     }
@@ -161,29 +180,108 @@ public class LinkedListDeque61B<T> implements Deque61B<T> {
     /**
      * 【要点12】getRecursive - 递归方式获取第index个元素
      * 这是LinkedListDeque特有的方法
-     * 使用辅助方法实现递归
+     * 和get一样从更近的一端出发，使用辅助方法实现递归
      */
     public T getRecursive(int index) {
         if (index < 0 || index >= size) {
             return null;
         }
-        return getRecursiveHelper(sentinel.next, index);
+        if (index < size / 2) {
+            return getRecursiveHelper(sentinel.next, index, true).item;
+        }
+        return getRecursiveHelper(sentinel.prev, size - 1 - index, false).item;
     }
 
     /**
-     * 【要点13】递归辅助方法
-     * 基础情况：index == 0时返回当前节点的item
-     * 递归情况：在下一个节点上查找index-1
+     * 【要点13】递归辅助方法 - 从node出发走steps步
+     * 每步递归一次的写法在index很大时（比如10⁶）会StackOverflowError
+     * 改为二分：先走steps/2步，再从那里走剩下的步数
+     * 总工作量仍是O(steps)，但递归深度只有O(log steps)，10⁶个元素也只有约20层
      */
-    private T getRecursiveHelper(Node node, int index) {
-        if (index == 0) {
-            return node.item;
+    private Node getRecursiveHelper(Node node, int steps, boolean forward) {
+        if (steps == 0) {
+            return node;
+        }
+        if (steps == 1) {
+            return forward ? node.next : node.prev;
         }
-        return getRecursiveHelper(node.next, index - 1);
+        Node middle = getRecursiveHelper(node, steps / 2, forward);
+        return getRecursiveHelper(middle, steps - steps / 2, forward);
+    }
+
+    /**
+     * 【要点14】toArray - 顺着链表走一遍
+     * 默认实现用get(i)，对链表来说是O(n²)
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        Node current = sentinel.next;
+        for (int i = 0; i < size; i++) {
+            result[i] = current.item;
+            current = current.next;
+        }
+        return result;
+    }
+
+    /**
+     * 【要点15】iterator - 沿next指针遍历，整体O(n)
+     * 用get(i)遍历是O(n²)，应该优先用迭代器
+     * fail-fast：遍历期间deque被修改则抛ConcurrentModificationException
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new LinkedListDequeIterator();
+    }
+
+    private class LinkedListDequeIterator implements Iterator<T> {
+        private Node current = sentinel.next;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return current != sentinel;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = current.item;
+            current = current.next;
+            return item;
+        }
+    }
+
+    /**
+     * 【要点16】spliterator - 链表无法按下标拆分
+     * 提供准确的size，让并行流按批次拆分
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * 【要点18】equals / hashCode - 与ArrayDeque61B约定相同（见DequeContent）
+     * 和任何内容、顺序都相同的Deque61B相等；用迭代器比较，O(n)
+     */
+    @Override
+    public boolean equals(Object o) {
+        return DequeContent.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return DequeContent.hashCode(this);
     }
 
     /**
-     * 【要点14】可选：实现toString方便调试
+     * 【要点17】可选：实现toString方便调试
      */
     @Override
     public String toString() {
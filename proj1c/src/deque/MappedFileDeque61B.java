@@ -0,0 +1,393 @@
+package deque;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent Deque61B of byte arrays stored in a memory-mapped file, for
+ * work queues that must survive a restart.
+ *
+ * File layout: a fixed {@value #HEADER_BYTES}-byte header followed by a
+ * circular data region of {@code capacity} bytes. Each item is stored as a
+ * record {@code [length][bytes][length]}. The leading length lets us walk
+ * forward from the head, and the trailing length lets us walk backward from
+ * the tail, so all four add/remove operations are O(1) like ArrayDeque61B.
+ * Records may wrap around the end of the data region.
+ *
+ * The header stores capacity, head, tail, used bytes and size. It is
+ * rewritten on every operation, so reopening the file recovers the deque by
+ * reading the header alone, without scanning any records.
+ *
+ * When a record does not fit, the file grows by doubling the data region,
+ * the same way ArrayDeque61B.resize grows its array. Only the wrapped part
+ * of the log, {@code [0, tail)}, is copied, to just past the old end.
+ *
+ * Writes land in the OS page cache. Call {@link #force()} to make the
+ * current state durable. A crash may lose operations since the last
+ * force(). The data region is a single mapping, so it is limited to 1 GiB.
+ *
+ * Deque61B methods cannot throw checked exceptions, so an IOException from
+ * opening, growing or closing the file is wrapped in a RuntimeException.
+ */
+public class MappedFileDeque61B implements Deque61B<byte[]>, AutoCloseable {
+
+    private static final int MAGIC = 0x44363142;  // "D61B"
+    private static final int HEADER_BYTES = 64;
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int RECORD_OVERHEAD = 2 * Integer.BYTES;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int HEAD_OFFSET = 8;
+    private static final int TAIL_OFFSET = 12;
+    private static final int USED_OFFSET = 16;
+    private static final int SIZE_OFFSET = 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int head;
+    private int tail;
+    private int used;
+    private int size;
+    private int modCount;
+
+    /**
+     * Opens the deque stored in {@code path}, or creates an empty one if the
+     * file does not exist or is empty.
+     *
+     * @throws RuntimeException if the file cannot be opened or is not a deque file
+     */
+    public MappedFileDeque61B(Path path) {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                capacity = INITIAL_CAPACITY;
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + capacity);
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                writeHeader();
+            } else {
+                recover(path);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /* Rebuilds head, tail, used and size from the header alone. */
+    private void recover(Path path) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IllegalStateException(path + " is too short to be a deque file");
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalStateException(path + " is not a deque file");
+        }
+        capacity = header.getInt(CAPACITY_OFFSET);
+        head = header.getInt(HEAD_OFFSET);
+        tail = header.getInt(TAIL_OFFSET);
+        used = header.getInt(USED_OFFSET);
+        size = header.getInt(SIZE_OFFSET);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + capacity);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(HEAD_OFFSET, head);
+        buffer.putInt(TAIL_OFFSET, tail);
+        buffer.putInt(USED_OFFSET, used);
+        buffer.putInt(SIZE_OFFSET, size);
+    }
+
+    /* ---------------- circular data region helpers ---------------- */
+
+    private int wrap(int pos) {
+        return Math.floorMod(pos, capacity);
+    }
+
+    private void putBytes(int pos, byte[] src) {
+        int first = Math.min(src.length, capacity - pos);
+        buffer.put(HEADER_BYTES + pos, src, 0, first);
+        buffer.put(HEADER_BYTES, src, first, src.length - first);
+    }
+
+    private byte[] getBytes(int pos, int length) {
+        byte[] dst = new byte[length];
+        int first = Math.min(length, capacity - pos);
+        buffer.get(HEADER_BYTES + pos, dst, 0, first);
+        buffer.get(HEADER_BYTES, dst, first, length - first);
+        return dst;
+    }
+
+    private void putInt(int pos, int value) {
+        if (pos + Integer.BYTES <= capacity) {
+            buffer.putInt(HEADER_BYTES + pos, value);
+            return;
+        }
+        for (int k = 0; k < Integer.BYTES; k++) {
+            buffer.put(HEADER_BYTES + wrap(pos + k), (byte) (value >>> (24 - 8 * k)));
+        }
+    }
+
+    private int getInt(int pos) {
+        if (pos + Integer.BYTES <= capacity) {
+            return buffer.getInt(HEADER_BYTES + pos);
+        }
+        int value = 0;
+        for (int k = 0; k < Integer.BYTES; k++) {
+            value = (value << 8) | (buffer.get(HEADER_BYTES + wrap(pos + k)) & 0xFF);
+        }
+        return value;
+    }
+
+    /* Writes a whole record starting at pos. */
+    private void putRecord(int pos, byte[] x) {
+        putInt(pos, x.length);
+        putBytes(wrap(pos + Integer.BYTES), x);
+        putInt(wrap(pos + Integer.BYTES + x.length), x.length);
+    }
+
+    /**
+     * Grows the data region until {@code recordBytes} more bytes fit.
+     * Doubles like ArrayDeque61B. If the log wraps, moves [0, tail) to just
+     * past the old end so the live bytes are contiguous again.
+     */
+    private void ensureCapacity(int recordBytes) {
+        if (used + recordBytes <= capacity) {
+            return;
+        }
+        long newCapacity = capacity;
+        while (newCapacity - used < recordBytes) {
+            newCapacity *= 2;
+        }
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("deque file cannot grow past " + MAX_CAPACITY + " bytes");
+        }
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + newCapacity);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        if (used > 0 && tail <= head) {
+            ByteBuffer src = buffer.duplicate().position(HEADER_BYTES).limit(HEADER_BYTES + tail);
+            buffer.duplicate().position(HEADER_BYTES + capacity).put(src);
+            tail += capacity;
+        }
+        capacity = (int) newCapacity;
+        writeHeader();
+    }
+
+    /* ---------------- Deque61B ---------------- */
+
+    @Override
+    public void addFirst(byte[] x) {
+        int recordBytes = x.length + RECORD_OVERHEAD;
+        ensureCapacity(recordBytes);
+        head = wrap(head - recordBytes);
+        putRecord(head, x);
+        used += recordBytes;
+        size++;
+        modCount++;
+        writeHeader();
+    }
+
+    @Override
+    public void addLast(byte[] x) {
+        int recordBytes = x.length + RECORD_OVERHEAD;
+        ensureCapacity(recordBytes);
+        putRecord(tail, x);
+        tail = wrap(tail + recordBytes);
+        used += recordBytes;
+        size++;
+        modCount++;
+        writeHeader();
+    }
+
+    @Override
+    public byte[] removeFirst() {
+        if (isEmpty()) {
+            return null;
+        }
+        int length = getInt(head);
+        byte[] item = getBytes(wrap(head + Integer.BYTES), length);
+        head = wrap(head + length + RECORD_OVERHEAD);
+        used -= length + RECORD_OVERHEAD;
+        size--;
+        modCount++;
+        writeHeader();
+        return item;
+    }
+
+    @Override
+    public byte[] removeLast() {
+        if (isEmpty()) {
+            return null;
+        }
+        int length = getInt(wrap(tail - Integer.BYTES));
+        tail = wrap(tail - length - RECORD_OVERHEAD);
+        byte[] item = getBytes(wrap(tail + Integer.BYTES), length);
+        used -= length + RECORD_OVERHEAD;
+        size--;
+        modCount++;
+        writeHeader();
+        return item;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Walks records from whichever end is closer, so this is
+     * O(min(index, size - index)).
+     */
+    @Override
+    public byte[] get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        int pos;
+        if (index < size / 2) {
+            pos = head;
+            for (int i = 0; i < index; i++) {
+                pos = wrap(pos + getInt(pos) + RECORD_OVERHEAD);
+            }
+        } else {
+            pos = tail;
+            for (int i = size; i > index; i--) {
+                pos = wrap(pos - getInt(wrap(pos - Integer.BYTES)) - RECORD_OVERHEAD);
+            }
+        }
+        return getBytes(wrap(pos + Integer.BYTES), getInt(pos));
+    }
+
+    /* Records are variable-length, so there is nothing to halve; same as get. */
+    @Override
+    public byte[] getRecursive(int index) {
+        return get(index);
+    }
+
+    @Override
+    public List<byte[]> toList() {
+        List<byte[]> returnList = new ArrayList<>(size);
+        for (byte[] item : this) {
+            returnList.add(item);
+        }
+        return returnList;
+    }
+
+    @Override
+    public Iterator<byte[]> iterator() {
+        return new Iterator<byte[]>() {
+            private int pos = head;
+            private int remaining = size;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public byte[] next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int length = getInt(pos);
+                byte[] item = getBytes(wrap(pos + Integer.BYTES), length);
+                pos = wrap(pos + length + RECORD_OVERHEAD);
+                remaining--;
+                return item;
+            }
+        };
+    }
+
+    /** Returns the size of the data region in bytes, excluding the header. */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Flushes every change so far to the storage device. */
+    public void force() {
+        buffer.force();
+    }
+
+    /** Forces outstanding changes and closes the file. */
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /** Equal to another MappedFileDeque61B holding byte arrays with the same
+     *  contents, in the same order. Every read returns a fresh array, so items
+     *  are compared with Arrays.equals rather than by identity as DequeContent
+     *  would. A non-empty deque of another class is never equal to this one,
+     *  since it compares byte[] items by identity. When both are empty there
+     *  are no items to compare, and DequeContent calls them equal, so this
+     *  does too to keep equals symmetric. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (size == 0 && o instanceof Deque61B && ((Deque61B<?>) o).isEmpty()) {
+            return true;
+        }
+        if (!(o instanceof MappedFileDeque61B)) {
+            return false;
+        }
+        MappedFileDeque61B other = (MappedFileDeque61B) o;
+        if (size != other.size) {
+            return false;
+        }
+        Iterator<byte[]> a = iterator();
+        Iterator<byte[]> b = other.iterator();
+        while (a.hasNext()) {
+            if (!Arrays.equals(a.next(), b.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The List.hashCode of the items, with each item hashed by content. */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (byte[] item : this) {
+            hash = 31 * hash + Arrays.hashCode(item);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedFileDeque61B: (size=" + size + ", used=" + used + ", capacity=" + capacity + ")";
+    }
+}
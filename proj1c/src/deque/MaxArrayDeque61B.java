@@ -1,5 +1,6 @@
 package deque;
 
+import java.util.Collection;
 import java.util.Comparator;
 
 /**
@@ -26,6 +27,23 @@ public class MaxArrayDeque61B<T> extends ArrayDeque61B<T> {
      */
     private final Comparator<T> comparator;
 
+    /**
+     * KEY POINT 2b: Monotonic companion deque for O(1) max()
+     * candidates holds every element that is >= all elements behind it
+     * (the "suffix maxima"), front to back, so it is non-increasing and its
+     * front is always the maximum. Ties are kept so duplicates are handled.
+     *
+     * - addLast(x): pop smaller candidates off the back, then push x. Each
+     *   element is pushed and popped at most once: amortized O(1).
+     * - removeFirst(): if the removed element is the front candidate, pop it.
+     * - addFirst(x): x is a suffix maximum iff x >= current max: O(1).
+     * - removeLast(): elements hidden by the removed one may become
+     *   candidates again, so mark the companion stale and rebuild it with
+     *   one backward scan on the next max().
+     */
+    private ArrayDeque61B<T> candidates;
+    private boolean stale;
+
     /**
      * KEY POINT 3: Constructor - Accept Comparator parameter
      * Must pass in a Comparator to define what "maximum" means
@@ -39,27 +57,121 @@ public class MaxArrayDeque61B<T> extends ArrayDeque61B<T> {
     public MaxArrayDeque61B(Comparator<T> c) {
         super();  // Call parent class constructor
         this.comparator = c;
+        this.candidates = new ArrayDeque61B<>();
+        this.stale = false;
+    }
+
+    @Override
+    public void addLast(T x) {
+        super.addLast(x);
+        pushCandidate(x);
+    }
+
+    @Override
+    public void addAllLast(T[] xs) {
+        super.addAllLast(xs);
+        for (T x : xs) {
+            pushCandidate(x);
+        }
+    }
+
+    /* ArrayDeque61B copies a collection in directly rather than through
+     * addAllLast(T[]), so the candidates must be updated here too. */
+    @Override
+    public void addAllLast(Collection<? extends T> xs) {
+        super.addAllLast(xs);
+        for (T x : xs) {
+            pushCandidate(x);
+        }
+    }
+
+    @Override
+    public void addFirst(T x) {
+        super.addFirst(x);
+        if (!stale && (candidates.isEmpty() || comparator.compare(x, candidates.get(0)) >= 0)) {
+            candidates.addFirst(x);
+        }
+    }
+
+    @Override
+    public T removeFirst() {
+        T item = super.removeFirst();
+        popCandidate(item);
+        return item;
+    }
+
+    @Override
+    public int removeFirst(T[] dest, int n) {
+        int count = super.removeFirst(dest, n);
+        for (int i = 0; i < count; i++) {
+            popCandidate(dest[i]);
+        }
+        return count;
+    }
+
+    @Override
+    public T removeLast() {
+        T item = super.removeLast();
+        if (item != null) {
+            stale = true;
+        }
+        return item;
+    }
+
+    /* Pushes x onto the back of candidates, dropping anything it dominates. */
+    private void pushCandidate(T x) {
+        if (stale) {
+            return;
+        }
+        while (!candidates.isEmpty()
+                && comparator.compare(candidates.get(candidates.size() - 1), x) < 0) {
+            candidates.removeLast();
+        }
+        candidates.addLast(x);
+    }
+
+    /* The front element is a candidate iff it is the front candidate. */
+    private void popCandidate(T removed) {
+        if (!stale && removed != null && !candidates.isEmpty() && candidates.get(0) == removed) {
+            candidates.removeFirst();
+        }
+    }
+
+    /* Rebuilds candidates with one scan from the back. O(n). */
+    private void rebuildCandidates() {
+        candidates = new ArrayDeque61B<>();
+        for (int i = size() - 1; i >= 0; i--) {
+            T x = get(i);
+            if (candidates.isEmpty() || comparator.compare(x, candidates.get(0)) >= 0) {
+                candidates.addFirst(x);
+            }
+        }
+        stale = false;
     }
 
     /**
      * KEY POINT 4: max() - Use default comparator
      * Returns the "maximum" element according to the stored comparator
-     * Time complexity: O(n) - must examine all elements
+     * Time complexity: O(1) - read the front of the candidates deque
+     * (one O(n) rebuild after removeLast, see KEY POINT 2b)
      *
      * Key considerations:
-     * - Must traverse all elements to find max
      * - Uses the comparator provided in constructor
      * - Returns null for empty deque
      *
      * @return the maximum element in the deque, or null if empty
      */
     public T max() {
-        return max(this.comparator);
+        if (stale) {
+            rebuildCandidates();
+        }
+        return candidates.get(0);
     }
 
     /**
      * KEY POINT 5: max(Comparator) - Use custom comparator
      * Allows using different comparison strategies to find "maximum"
+     * Time complexity: O(n) - ad-hoc comparators have no companion deque
      * This demonstrates the Strategy Pattern in action
      *
      * Examples:
@@ -100,37 +212,24 @@ public class MaxArrayDeque61B<T> extends ArrayDeque61B<T> {
 
     /**
      * KEY POINT 7: Optional enhancement - equals method
-     * Compare two MaxArrayDeque61B for equality
      * NOTE: Only compares content, not comparators
      *
      * Design decision: Two deques are equal if they have same elements
-     * in same order, regardless of their comparators
+     * in same order, regardless of their comparators. That is exactly
+     * ArrayDeque61B's contract, which also accepts any other Deque61B, so
+     * this delegates to it (and inherits the matching hashCode). Accepting
+     * only MaxArrayDeque61B here would make equals asymmetric:
+     * arrayDeque.equals(maxDeque) could be true while
+     * maxDeque.equals(arrayDeque) was false.
      */
     @Override
     public boolean equals(Object other) {
-        if (this == other) {
-            return true;
-        }
-        if (other == null) {
-            return false;
-        }
-        if (!(other instanceof MaxArrayDeque61B)) {
-            return false;
-        }
-
-        MaxArrayDeque61B<?> o = (MaxArrayDeque61B<?>) other;
-
-        if (this.size() != o.size()) {
-            return false;
-        }
-
-        for (int i = 0; i < size(); i++) {
-            if (!this.get(i).equals(o.get(i))) {
-                return false;
-            }
-        }
+        return super.equals(other);
+    }
 
-        return true;
+    @Override
+    public int hashCode() {
+        return super.hashCode();
     }
 
     /**
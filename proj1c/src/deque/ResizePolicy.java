@@ -0,0 +1,83 @@
+package deque;
+
+/**
+ * How an {@link ArrayDeque61B} grows and shrinks its backing array.
+ *
+ * - growthFactor: when the array is full, its capacity is multiplied by
+ *   this. Must be a power of two, because ArrayDeque61B wraps indices with
+ *   a bitmask.
+ * - shrinkThreshold: when size / capacity drops below this, capacity is
+ *   divided by growthFactor. 0 disables shrinking.
+ * - minCapacity: the array never shrinks below this. Must be a power of two.
+ *
+ * Hysteresis: after growing, usage is 1 / growthFactor. After shrinking,
+ * usage is below shrinkThreshold * growthFactor. As long as
+ * shrinkThreshold < 1 / growthFactor, a deque sitting at a capacity
+ * boundary cannot bounce between two sizes on every add/remove. The
+ * constructor rejects policies that break this rule.
+ */
+public final class ResizePolicy {
+
+    /** The original ArrayDeque61B policy: double when full, halve below 25% use, never below 8. */
+    public static final ResizePolicy DEFAULT = new ResizePolicy(2, 0.25, 8);
+
+    private final int growthFactor;
+    private final double shrinkThreshold;
+    private final int minCapacity;
+
+    /**
+     * @throws IllegalArgumentException if growthFactor or minCapacity is not
+     *         a power of two, growthFactor is less than 2, or shrinkThreshold
+     *         is not in [0, 1 / growthFactor)
+     */
+    public ResizePolicy(int growthFactor, double shrinkThreshold, int minCapacity) {
+        if (growthFactor < 2 || Integer.bitCount(growthFactor) != 1) {
+            throw new IllegalArgumentException("growthFactor must be a power of two >= 2: " + growthFactor);
+        }
+        if (minCapacity < 1 || Integer.bitCount(minCapacity) != 1) {
+            throw new IllegalArgumentException("minCapacity must be a power of two: " + minCapacity);
+        }
+        if (!(shrinkThreshold >= 0 && shrinkThreshold < 1.0 / growthFactor)) {
+            throw new IllegalArgumentException("shrinkThreshold must be in [0, 1 / growthFactor) "
+                    + "to avoid resize thrashing: " + shrinkThreshold);
+        }
+        this.growthFactor = growthFactor;
+        this.shrinkThreshold = shrinkThreshold;
+        this.minCapacity = minCapacity;
+    }
+
+    public int growthFactor() {
+        return growthFactor;
+    }
+
+    public double shrinkThreshold() {
+        return shrinkThreshold;
+    }
+
+    public int minCapacity() {
+        return minCapacity;
+    }
+
+    /** Returns the capacity to grow to so that at least {@code needed} items fit. */
+    int grownCapacity(int capacity, int needed) {
+        while (capacity < needed) {
+            capacity *= growthFactor;
+        }
+        return capacity;
+    }
+
+    /** Returns the capacity to shrink to for {@code size} items, or {@code capacity} if none. */
+    int shrunkCapacity(int capacity, int size) {
+        // Usage test first: it is almost always false, and avoids the division.
+        while (size < capacity * shrinkThreshold && capacity / growthFactor >= minCapacity) {
+            capacity /= growthFactor;
+        }
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "ResizePolicy(growthFactor=" + growthFactor + ", shrinkThreshold=" + shrinkThreshold
+                + ", minCapacity=" + minCapacity + ")";
+    }
+}
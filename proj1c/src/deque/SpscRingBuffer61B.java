@@ -0,0 +1,241 @@
+package deque;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A bounded, wait-free single-producer/single-consumer ring buffer.
+ *
+ * Exactly one thread may call {@link #offer}/{@link #addLast}, and exactly
+ * one (possibly different) thread may call {@link #poll}/{@link #removeFirst}.
+ * With that contract there are no locks and no CAS loops: each side publishes
+ * its index with a single release store and reads the other side's index
+ * with an acquire load, and only when its locally cached copy says the ring
+ * looks full (producer) or empty (consumer).
+ *
+ * The head and tail indices live on separate cache lines (see the padding
+ * superclasses below), so the producer and consumer never false-share.
+ *
+ * Capacity is fixed at construction (rounded up to a power of two) and the
+ * buffer never resizes. addFirst and removeLast are not supported: a ring
+ * with one writer and one reader only moves in one direction.
+ *
+ * get(i), toList(), iteration and size() are only exact when called from the
+ * consumer thread while the producer is idle; otherwise they are snapshots.
+ */
+public class SpscRingBuffer61B<T> extends SpscRingBufferPad2 implements Deque61B<T> {
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscRingBufferHead.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscRingBufferTail.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object[] items;
+    private final int mask;
+
+    /**
+     * Creates a ring holding at least {@code capacity} items.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is not in [1, 2^30]
+     */
+    public SpscRingBuffer61B(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + capacity);
+        }
+        int length = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        items = new Object[length];
+        mask = length - 1;
+    }
+
+    /** Returns the fixed number of items the ring can hold. */
+    public int capacity() {
+        return items.length;
+    }
+
+    /**
+     * Producer only. Adds {@code x} at the back if there is room.
+     *
+     * @return {@code true} if added, {@code false} if the ring is full
+     */
+    public boolean offer(T x) {
+        long t = tail;
+        if (t - cachedHead >= items.length) {
+            cachedHead = (long) HEAD.getAcquire(this);
+            if (t - cachedHead >= items.length) {
+                return false;
+            }
+        }
+        items[(int) t & mask] = x;
+        TAIL.setRelease(this, t + 1);
+        return true;
+    }
+
+    /**
+     * Consumer only. Removes and returns the front item.
+     *
+     * @return the front item, or {@code null} if the ring is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long h = head;
+        if (h >= cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        int index = (int) h & mask;
+        T item = (T) items[index];
+        items[index] = null;
+        HEAD.setRelease(this, h + 1);
+        return item;
+    }
+
+    /**
+     * Producer only. Same as {@link #offer} but fails loudly, as a Deque61B
+     * caller does not expect addLast to drop items.
+     *
+     * @throws IllegalStateException if the ring is full
+     */
+    @Override
+    public void addLast(T x) {
+        if (!offer(x)) {
+            throw new IllegalStateException("ring is full (capacity " + items.length + ")");
+        }
+    }
+
+    /** Consumer only. Same as {@link #poll}. */
+    @Override
+    public T removeFirst() {
+        return poll();
+    }
+
+    /** @throws UnsupportedOperationException always; the producer only appends. */
+    @Override
+    public void addFirst(T x) {
+        throw new UnsupportedOperationException("SpscRingBuffer61B only adds at the back");
+    }
+
+    /** @throws UnsupportedOperationException always; the consumer only takes from the front. */
+    @Override
+    public T removeLast() {
+        throw new UnsupportedOperationException("SpscRingBuffer61B only removes from the front");
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (long) TAIL.getAcquire(this) == (long) HEAD.getAcquire(this);
+    }
+
+    @Override
+    public int size() {
+        long h = (long) HEAD.getAcquire(this);
+        long t = (long) TAIL.getAcquire(this);
+        return (int) Math.max(0, Math.min(items.length, t - h));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        long h = (long) HEAD.getAcquire(this);
+        long t = (long) TAIL.getAcquire(this);
+        if (index < 0 || index >= t - h) {
+            return null;
+        }
+        return (T) items[(int) (h + index) & mask];
+    }
+
+    @Override
+    public T getRecursive(int index) {
+        return get(index);
+    }
+
+    @Override
+    public List<T> toList() {
+        List<T> returnList = new ArrayList<>();
+        for (T item : this) {
+            returnList.add(item);
+        }
+        return returnList;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private long index = (long) HEAD.getAcquire(SpscRingBuffer61B.this);
+            private final long end = (long) TAIL.getAcquire(SpscRingBuffer61B.this);
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (T) items[(int) index++ & mask];
+            }
+        };
+    }
+
+    /** Equal to any Deque61B with the same items in the same order; see DequeContent.
+     *  Only exact from the consumer thread while the producer is idle. */
+    @Override
+    public boolean equals(Object o) {
+        return DequeContent.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return DequeContent.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "SpscRingBuffer61B: " + toList() + " (capacity=" + items.length + ")";
+    }
+}
+
+/* The classes below only exist to lay out SpscRingBuffer61B's fields. The JVM
+ * may reorder fields within a class but keeps superclass fields first, so
+ * 64 bytes of padding on each side keeps head and tail on their own cache
+ * lines. */
+
+abstract class SpscRingBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+/** Consumer-owned: head is written only by the consumer. */
+abstract class SpscRingBufferHead extends SpscRingBufferPad0 {
+    volatile long head;
+    long cachedTail;
+}
+
+abstract class SpscRingBufferPad1 extends SpscRingBufferHead {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+/** Producer-owned: tail is written only by the producer. */
+abstract class SpscRingBufferTail extends SpscRingBufferPad1 {
+    volatile long tail;
+    long cachedHead;
+}
+
+abstract class SpscRingBufferPad2 extends SpscRingBufferTail {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
@@ -0,0 +1,332 @@
+package deque;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An unrolled doubly linked deque: each node holds a small array chunk of
+ * items instead of a single item.
+ *
+ * Compared to {@link LinkedListDeque61B}, which pays one Node object (item,
+ * prev, next and a header, about 32 bytes) per item, this pays one chunk per
+ * {@code chunkSize} items, and neighbouring items sit next to each other in
+ * memory. Chunks emptied by removals can be kept on a small free list and
+ * reused by later adds, so steady queue-like churn allocates nothing.
+ *
+ * Within a chunk, live items occupy {@code items[lo, hi)}. The front chunk
+ * grows downwards (addFirst) and the back chunk grows upwards (addLast).
+ */
+public class UnrolledLinkedListDeque61B<T> implements Deque61B<T> {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+    private static final int DEFAULT_MAX_POOLED_CHUNKS = 2;
+
+    private class Chunk {
+        Object[] items;
+        int lo;
+        int hi;
+        Chunk prev;
+        Chunk next;
+
+        Chunk() {
+            items = new Object[chunkSize];
+        }
+
+        int count() {
+            return hi - lo;
+        }
+    }
+
+    private final int chunkSize;
+    private final int maxPooledChunks;
+
+    /* sentinel.next is the front chunk, sentinel.prev the back chunk. */
+    private final Chunk sentinel;
+    private int size;
+    private int modCount;
+
+    /* Recycled empty chunks, linked through next. */
+    private Chunk freeList;
+    private int pooledChunks;
+
+    public UnrolledLinkedListDeque61B() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_POOLED_CHUNKS);
+    }
+
+    /**
+     * @param chunkSize number of items per chunk, at least 2
+     * @param maxPooledChunks how many emptied chunks to keep for reuse; 0
+     *                        disables the free list
+     */
+    public UnrolledLinkedListDeque61B(int chunkSize, int maxPooledChunks) {
+        if (chunkSize < 2) {
+            throw new IllegalArgumentException("chunkSize must be at least 2: " + chunkSize);
+        }
+        if (maxPooledChunks < 0) {
+            throw new IllegalArgumentException("maxPooledChunks must be non-negative: " + maxPooledChunks);
+        }
+        this.chunkSize = chunkSize;
+        this.maxPooledChunks = maxPooledChunks;
+        sentinel = new Chunk();
+        sentinel.items = null;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        size = 0;
+    }
+
+    /* Takes a chunk from the free list, or allocates one. */
+    private Chunk newChunk(int position) {
+        Chunk c;
+        if (freeList != null) {
+            c = freeList;
+            freeList = c.next;
+            pooledChunks--;
+        } else {
+            c = new Chunk();
+        }
+        c.lo = position;
+        c.hi = position;
+        return c;
+    }
+
+    /* Unlinks an empty chunk and returns it to the free list if there is room. */
+    private void releaseChunk(Chunk c) {
+        c.prev.next = c.next;
+        c.next.prev = c.prev;
+        c.prev = null;
+        if (pooledChunks < maxPooledChunks) {
+            c.next = freeList;
+            freeList = c;
+            pooledChunks++;
+        } else {
+            c.next = null;
+        }
+    }
+
+    private void linkAfter(Chunk c, Chunk before) {
+        c.prev = before;
+        c.next = before.next;
+        before.next.prev = c;
+        before.next = c;
+    }
+
+    @Override
+    public void addFirst(T x) {
+        Chunk front = sentinel.next;
+        if (front == sentinel || front.lo == 0) {
+            // An empty deque starts in the middle so both ends have room.
+            front = newChunk(front == sentinel ? chunkSize / 2 : chunkSize);
+            linkAfter(front, sentinel);
+        }
+        front.items[--front.lo] = x;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void addLast(T x) {
+        Chunk back = sentinel.prev;
+        if (back == sentinel || back.hi == chunkSize) {
+            back = newChunk(back == sentinel ? chunkSize / 2 : 0);
+            linkAfter(back, sentinel.prev);
+        }
+        back.items[back.hi++] = x;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T removeFirst() {
+        if (isEmpty()) {
+            return null;
+        }
+        Chunk front = sentinel.next;
+        T item = (T) front.items[front.lo];
+        front.items[front.lo++] = null;
+        if (front.count() == 0) {
+            releaseChunk(front);
+        }
+        size--;
+        modCount++;
+        return item;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T removeLast() {
+        if (isEmpty()) {
+            return null;
+        }
+        Chunk back = sentinel.prev;
+        T item = (T) back.items[--back.hi];
+        back.items[back.hi] = null;
+        if (back.count() == 0) {
+            releaseChunk(back);
+        }
+        size--;
+        modCount++;
+        return item;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Skips whole chunks from whichever end is closer, so this is
+     * O(min(index, size - index) / chunkSize).
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        if (index < size / 2) {
+            Chunk c = sentinel.next;
+            while (index >= c.count()) {
+                index -= c.count();
+                c = c.next;
+            }
+            return (T) c.items[c.lo + index];
+        }
+        int fromBack = size - 1 - index;
+        Chunk c = sentinel.prev;
+        while (fromBack >= c.count()) {
+            fromBack -= c.count();
+            c = c.prev;
+        }
+        return (T) c.items[c.hi - 1 - fromBack];
+    }
+
+    /**
+     * Starts from whichever end is closer and recurses the way
+     * LinkedListDeque61B does: a walk of k items is split into two walks of
+     * about k / 2, so the depth is O(log k) even at 10^6 items. A walk that
+     * stays inside one chunk is a single step, so the work is still about
+     * one call per chunk crossed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getRecursive(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        Cursor cursor;
+        if (index < size / 2) {
+            cursor = new Cursor(sentinel.next, 0);
+            walk(cursor, index, true);
+        } else {
+            cursor = new Cursor(sentinel.prev, sentinel.prev.count() - 1);
+            walk(cursor, size - 1 - index, false);
+        }
+        return (T) cursor.chunk.items[cursor.chunk.lo + cursor.offset];
+    }
+
+    /* A position in the deque: item OFFSET of CHUNK, counted from chunk.lo. */
+    private class Cursor {
+        Chunk chunk;
+        int offset;
+
+        Cursor(Chunk chunk, int offset) {
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+    }
+
+    /* Moves CURSOR STEPS items towards the back, or towards the front if
+     * FORWARD is false. Chunks in the list are never empty. */
+    private void walk(Cursor cursor, int steps, boolean forward) {
+        int room = forward ? cursor.chunk.count() - 1 - cursor.offset : cursor.offset;
+        if (steps <= room) {
+            cursor.offset += forward ? steps : -steps;
+            return;
+        }
+        if (steps == 1) {
+            cursor.chunk = forward ? cursor.chunk.next : cursor.chunk.prev;
+            cursor.offset = forward ? 0 : cursor.chunk.count() - 1;
+            return;
+        }
+        walk(cursor, steps / 2, forward);
+        walk(cursor, steps - steps / 2, forward);
+    }
+
+    @Override
+    public List<T> toList() {
+        List<T> returnList = new ArrayList<>(size);
+        for (T item : this) {
+            returnList.add(item);
+        }
+        return returnList;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        int pos = 0;
+        for (Chunk c = sentinel.next; c != sentinel; c = c.next) {
+            System.arraycopy(c.items, c.lo, result, pos, c.count());
+            pos += c.count();
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new UnrolledIterator();
+    }
+
+    private class UnrolledIterator implements Iterator<T> {
+        private Chunk chunk = sentinel.next;
+        private int index = chunk.lo;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return chunk != sentinel;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = (T) chunk.items[index++];
+            if (index == chunk.hi) {
+                chunk = chunk.next;
+                index = chunk.lo;
+            }
+            return item;
+        }
+    }
+
+    /** Equal to any Deque61B with the same items in the same order; see DequeContent. */
+    @Override
+    public boolean equals(Object o) {
+        return DequeContent.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return DequeContent.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -1,6 +1,5 @@
 package gh2;
 
-import edu.princeton.cs.algs4.StdAudio;
 import edu.princeton.cs.algs4.StdDraw;
 
 /**
@@ -12,7 +11,7 @@ public class GuitarHeroLite {
     private static final int WIDTH = 512;
     private static final int HEIGHT = 512;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         /* create two guitar strings, for concert A and C */
         GuitarString stringA = new GuitarString(CONCERT_A);
         GuitarString stringC = new GuitarString(CONCERT_C);
@@ -23,38 +22,36 @@ public class GuitarHeroLite {
         StdDraw.setPenRadius(0.05);
         StdDraw.text(WIDTH / 2, (HEIGHT + 16) / 2, "Play the guitar!");
         StdDraw.text(WIDTH / 2, (HEIGHT - 32) / 2, "Type A or C");
+
+        /* synthesis and audio output run on their own threads; this loop
+         * only handles keys and drawing, so drawing can never stall audio */
+        RealtimeSynth synth = new RealtimeSynth(new GuitarString[]{stringA, stringC});
+        synth.start();
         while (true) {
 
             /* check if the user has typed a key; if so, process it */
             if (StdDraw.hasNextKeyTyped()) {
                 char key = StdDraw.nextKeyTyped();
                 if (key == 'a') {
-                    StdDraw.clear();
-                    StdDraw.text(WIDTH / 2, HEIGHT / 2, "A");
-
-                    StdDraw.show();
-                    stringA.pluck();
-
+                    synth.pluck(0);
+                    draw("A", synth);
                 } else if (key == 'c') {
-                    StdDraw.clear();
-                    StdDraw.text(WIDTH / 2, HEIGHT / 2, "C");
-                    StdDraw.show();
-
-                    stringC.pluck();
+                    synth.pluck(1);
+                    draw("C", synth);
                 }
+            } else {
+                /* nothing to do until the next key; don't spin */
+                Thread.sleep(1);
             }
-
-            /* compute the superposition of samples */
-            double sample = stringA.sample() + stringC.sample();
-
-            /* play the sample on standard audio */
-            StdAudio.play(sample);
-
-            /* advance the simulation of each guitar string by one step */
-            stringA.tic();
-            stringC.tic();
-
         }
     }
-}
 
+    private static void draw(String note, RealtimeSynth synth) {
+        StdDraw.clear();
+        StdDraw.text(WIDTH / 2, HEIGHT / 2, note);
+        StdDraw.text(WIDTH / 2, HEIGHT / 4, String.format("latency %.1f ms (mean %.1f, max %.1f), underruns %d",
+                synth.lastLatencyMillis(), synth.meanLatencyMillis(), synth.maxLatencyMillis(),
+                synth.underruns()));
+        StdDraw.show();
+    }
+}
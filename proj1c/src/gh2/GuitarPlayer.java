@@ -6,6 +6,8 @@ import javax.sound.midi.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 /**
  * Plays guitar from MIDI files.
@@ -13,9 +15,34 @@ import java.io.InputStream;
  * @author Eli Lipsitz
  */
 public class GuitarPlayer {
+    /* Samples per audio block. Strings are advanced a whole block at a time,
+     * so the per-sample cost is one tight loop per sounding string instead of
+     * a method call per string per sample. */
+    private static final int BLOCK_SIZE = SynthEngine.MAX_BLOCK_SIZE;
+
+    /* One voice per MIDI note was the original limit; it is now just the default pool size. */
+    private static final int DEFAULT_MAX_VOICES = 128;
+
+    /* Default mean-square level below which a string is put to sleep: an RMS
+     * of 1e-5, under the smallest step of 16-bit audio (about 3e-5). */
+    private static final double DEFAULT_SILENCE_THRESHOLD = 1e-10;
+
     private Sequence sequence = null;
-    private GuitarString[] strings;
-    private double[] vol;
+    private SynthEngine engine;
+    private double[] block;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxVoices = DEFAULT_MAX_VOICES;
+    private double silenceThreshold = DEFAULT_SILENCE_THRESHOLD;
+    private long seed = System.nanoTime();
+
+    /* Where rendered blocks go: StdAudio when playing, a WAV file offline. */
+    private interface AudioSink {
+        void write(double[] samples, int n);
+    }
+
+    public GuitarPlayer(Sequence sequence) {
+        this.sequence = sequence;
+    }
 
     public GuitarPlayer(InputStream source) {
         try {
@@ -33,108 +60,184 @@ public class GuitarPlayer {
         }
     }
 
+    /* Builds a fresh engine, so each performance starts from silence with
+     * zeroed counters. Everything the render loop needs is allocated here. */
     private void initialize() {
-        strings = new GuitarString[128];
-        vol = new double[128];
-        for (int i = 0; i < strings.length; i++) {
-            strings[i] = new GuitarString(440.0 * Math.pow(2.0, (i - 69.0) / 12.0));
-            vol[i] = 0.0;
+        engine = new SynthEngine(maxVoices, seed);
+        engine.setSilenceThreshold(silenceThreshold);
+        engine.setThreads(threads);
+        block = new double[BLOCK_SIZE];
+    }
+
+    /**
+     * Sets how many threads mix voices. With 1 (the default on a single-core
+     * machine) every block is mixed on the calling thread. Otherwise blocks
+     * with many sounding strings are split across a fork-join pool; see
+     * ParallelMixer.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
         }
+        this.threads = threads;
     }
 
-    private void tic() {
-        for (int i = 0; i < strings.length; i++) {
-            if (vol[i] > 0.0) {
-                strings[i].tic();
-            }
+    /**
+     * Sets how many notes can sound at once. A note-on beyond that steals
+     * the quietest voice; see SynthEngine. The default is 128.
+     */
+    public void setMaxVoices(int maxVoices) {
+        if (maxVoices < 1) {
+            throw new IllegalArgumentException("maxVoices must be at least 1: " + maxVoices);
         }
+        this.maxVoices = maxVoices;
     }
 
-    private double sample() {
-        double sum = 0.0f;
-        for (int i = 0; i < strings.length; i++) {
-            sum += vol[i] * strings[i].sample();
+    /**
+     * Makes performances reproducible: every performance after this call
+     * plucks the same noise, so rendering twice gives the same audio.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the mean square (RMS squared) below which a held string counts as
+     * silent. Silent strings stop being rendered until they are plucked
+     * again. 0 keeps every held string awake, as before.
+     */
+    public void setSilenceThreshold(double threshold) {
+        if (!(threshold >= 0)) {
+            throw new IllegalArgumentException("threshold must be non-negative: " + threshold);
         }
-        return sum;
+        silenceThreshold = threshold;
     }
 
+    /** Returns the number of voices being rendered right now. */
+    public int activeVoices() {
+        return engine == null ? 0 : engine.activeVoices();
+    }
+
+    /** Returns the most voices rendered in any one block of the last performance. */
+    public int peakActiveVoices() {
+        return engine == null ? 0 : engine.peakActiveVoices();
+    }
+
+    /** Returns the mean number of voices rendered per block in the last performance. */
+    public double averageActiveVoices() {
+        return engine == null ? 0 : engine.averageActiveVoices();
+    }
+
+    /** Returns how many times a held string decayed below the threshold and was put to sleep. */
+    public long voicesSlept() {
+        return engine == null ? 0 : engine.voicesSlept();
+    }
+
+    /** Returns how many note-ons in the last performance had to steal a sounding voice. */
+    public long voicesStolen() {
+        return engine == null ? 0 : engine.voicesStolen();
+    }
+
+    /* Renders the next n samples and sends them to the sink, block by block. */
+    private void render(long n, AudioSink sink) {
+        while (n > 0) {
+            int len = (int) Math.min(n, BLOCK_SIZE);
+            engine.render(block, 0, len);
+            sink.write(block, len);
+            n -= len;
+        }
+    }
+
+    /** Plays the sequence through StdAudio, in real time. */
     public void play() {
         if (sequence == null) {
             return;
         }
 
         System.out.println("starting performance...");
-        initialize();
-        double bpm = 120;
-        double samplesPerTick = StdAudio.SAMPLE_RATE * (60.0 / (sequence.getResolution() * bpm));
-
-        Track[] tracks = sequence.getTracks();
-        Track track = sequence.createTrack();
-        int maxSize = 0;
-        int lead = 0;
-        for (int i = 0; i < tracks.length; i++) {
-            for (int j = 0; j < tracks[i].size(); j++) {
-                track.add(tracks[i].get(j));
-            }
+        perform((samples, n) -> StdAudio.play(n == samples.length ? samples : Arrays.copyOf(samples, n)));
+        System.out.println("please clap");
+    }
+
+    /**
+     * Renders the sequence to a 16-bit mono WAV file at {@code out} as fast
+     * as the CPU allows, instead of at the speed of StdAudio. The audio is
+     * streamed to disk block by block, so memory use does not depend on the
+     * length of the song.
+     *
+     * @return the render speed as a multiple of real time, or 0 if there
+     *         was no sequence to render
+     */
+    public double renderToWav(Path out) {
+        if (sequence == null) {
+            return 0;
         }
 
-        long tick = 0;
-        for (int i = 0; i < track.size(); i++) {
-            MidiEvent event = track.get(i);
-            MidiMessage msg = event.getMessage();
-            byte[] data = msg.getMessage();
-
-            if (msg instanceof MetaMessage) {
-                MetaMessage mm = (MetaMessage) msg;
-                if (mm.getType() == 0x51) {
-                    // set tempo
-                    data = mm.getData();
-                    int tempo = (data[0] & 0xff) << 16 | (data[1] & 0xff) << 8 | (data[2] & 0xff);
-                    bpm = 60000000.0 / tempo;
-                    samplesPerTick = StdAudio.SAMPLE_RATE
-                        * (60.0 / (sequence.getResolution() * bpm));
-                } else if (mm.getType() == 0x05) {
-                    // lyrics
-                    data = mm.getData();
-                    String lyrics = new String(data);
-                    lyrics = lyrics.replace("\r", "\r\n");
-                    System.out.print(lyrics);
-                }
-                continue;
-            }
+        long begin = System.nanoTime();
+        long samples;
+        try (WavWriter wav = new WavWriter(out, StdAudio.SAMPLE_RATE)) {
+            perform((mixed, n) -> wav.write(mixed, 0, n));
+            samples = wav.samplesWritten();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        double audioSeconds = (double) samples / StdAudio.SAMPLE_RATE;
+        double speed = audioSeconds / seconds;
+        System.out.printf("rendered %.1f s of audio to %s in %.2f s (%.1fx real time)%n",
+                audioSeconds, out, seconds, speed);
+        System.out.printf("voices per block: %.1f average, %d peak; %d put to sleep, %d stolen%n",
+                averageActiveVoices(), peakActiveVoices(), voicesSlept(), voicesStolen());
+        return speed;
+    }
 
-            if (event.getTick() > tick) {
-                int samplesToSkip = (int) ((event.getTick() - tick) * samplesPerTick);
-                for (int j = 0; j < samplesToSkip; j++) {
-                    tic();
-                    StdAudio.play(sample());
-                }
-                tick = event.getTick();
-            }
+    /* Walks the MIDI events in order, rendering audio into SINK between them. */
+    private void perform(AudioSink sink) {
+        initialize();
+        try {
+            performEvents(sink);
+        } finally {
+            engine.close();
+        }
+    }
 
-            int j = 0;
-            while (j < data.length - 2) {
-                int s = data[j++] & 0xFF;
-
-                if (s >= 0x80 && s <= 0x8F) {
-                    // note off
-                    int note = data[j++] & 0xFF;
-                    int vel = data[j++] & 0xFF;
-                    vol[note] = 0.0;
-                } else if (s >= 0x90 && s <= 0x9F) {
-                    // note on?
-                    int note = data[j++] & 0xFF;
-                    int vel = data[j++] & 0xFF;
-                    vol[note] = vel / 127.0;
-                    strings[note].pluck();
+    /* Renders the audio between consecutive scheduled events in single runs,
+     * applying each event at its precomputed sample. */
+    private void performEvents(AudioSink sink) {
+        MidiScheduler schedule = new MidiScheduler(sequence, StdAudio.SAMPLE_RATE);
+        long now = 0;
+        for (int i = 0; i < schedule.size(); i++) {
+            long at = Math.min(schedule.sampleAt(i), schedule.endSample());
+            render(at - now, sink);
+            now = at;
+
+            MidiMessage msg = schedule.message(i);
+            if (msg instanceof ShortMessage) {
+                ShortMessage sm = (ShortMessage) msg;
+                if (sm.getCommand() == ShortMessage.NOTE_OFF) {
+                    engine.noteOff(sm.getData1());
                 } else {
-                    // status
-                    int d = data[j++] & 0xFF;
-                    int d2 = data[j++] & 0xFF;
+                    engine.noteOn(sm.getData1(), sm.getData2() / 127.0);
                 }
+            } else {
+                // lyrics
+                String lyrics = new String(((MetaMessage) msg).getData());
+                System.out.print(lyrics.replace("\r", "\r\n"));
             }
         }
+    }
 
-        System.out.println("please clap");
+    /**
+     * Renders a MIDI file to WAV without playing it.
+     * Usage: java gh2.GuitarPlayer song.mid song.wav [threads]
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("usage: java gh2.GuitarPlayer song.mid song.wav [threads]");
+            return;
+        }
+        GuitarPlayer player = new GuitarPlayer(new File(args[0]));
+        if (args.length == 3) {
+            player.setThreads(Integer.parseInt(args[2]));
+        }
+        player.renderToWav(Path.of(args[1]));
     }
 }
@@ -1,7 +1,9 @@
 package gh2;
 
-import deque.Deque61B;
-import deque.LinkedListDeque61B;
+import deque.DoubleArrayDeque61B;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GuitarString {
     /** Constants. Do not change. In case you're curious, the keyword final
@@ -10,59 +12,202 @@ public class GuitarString {
     private static final int SR = 44100;      // Sampling Rate
     private static final double DECAY = .996; // energy decay factor
 
-    /* Buffer for storing sound data. */
-    private Deque61B<Double> buffer;
+    /* Buffer for storing sound data: a primitive deque that always holds
+     * period samples. A tic is removeFirst() plus addLast(), but it is done
+     * straight on the deque's ring(): the new back sample goes into the
+     * slot after the current back, then rotate() moves both ends. The
+     * Karplus-Strong buffer never changes size, so the deque never resizes
+     * and ring and mask stay valid. It is created with room for this
+     * string's own period, so the string can be retuned to any higher note
+     * without reallocating (see tune()). */
+    private final DoubleArrayDeque61B buffer;
+    private final double[] ring;
+    private final int mask;
+    private int period;
+
+    /* Energy tracking. Each tic replaces a with DECAY * (a + b) / 2, and
+     * ((a + b) / 2)^2 <= (a^2 + b^2) / 2, so over one trip around the ring
+     * the sum of squares shrinks by about DECAY^2. sumSquares is therefore
+     * kept up to date with one multiply per tic (or one pow per block)
+     * instead of a running sum in the render loop, which would cost a
+     * serial floating-point add per sample. isSilent() recounts exactly
+     * before it trusts the estimate. */
+    private double decayPerTic;
+    private double sumSquares;
+
+    /* xorshift64 state picking where in the NoiseTable each pluck starts.
+     * Strings made without a seed draw one from SEEDS, spaced by the golden
+     * ratio so neighbouring strings start far apart. */
+    private static final AtomicLong SEEDS = new AtomicLong(System.nanoTime());
+    private long noiseState;
 
     /* Create a guitar string of the given frequency.  */
     public GuitarString(double frequency) {
-        // Initialize the buffer with capacity = SR / frequency.
-        int capacity = (int) Math.round(SR / frequency);
-        buffer = new LinkedListDeque61B<>();
+        this(frequency, SEEDS.getAndAdd(0x9E3779B97F4A7C15L));
+    }
 
-        // Fill buffer with zeros
-        for (int i = 0; i < capacity; i++) {
-            buffer.addLast(0.0);
-        }
+    /* Create a guitar string of the given frequency whose plucks are
+     * reproducible: two strings with the same frequency and seed sound
+     * exactly alike. */
+    public GuitarString(double frequency, long seed) {
+        // Initialize the buffer with capacity = SR / frequency, all zeros.
+        buffer = new DoubleArrayDeque61B(periodOf(frequency));
+        ring = buffer.ring();
+        mask = ring.length - 1;
+        tune(frequency);
+        // Scramble the seed (SplitMix64 finalizer); xorshift needs a non-zero state.
+        long z = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        noiseState = (z ^ (z >>> 31)) | 1;
     }
 
 
-    /* Pluck the guitar string by replacing the buffer with white noise. */
-    public void pluck() {
-        // Dequeue everything in buffer, and replace with random numbers
-        // between -0.5 and 0.5
-        int size = buffer.size();
+    private static int periodOf(double frequency) {
+        return Math.max(1, (int) Math.round(SR / frequency));
+    }
 
-        // Remove all current values
-        for (int i = 0; i < size; i++) {
-            buffer.removeFirst();
+    /**
+     * Retunes the string to {@code frequency} and silences it, reusing the
+     * existing buffer. Lets a synthesizer keep a fixed pool of strings and
+     * move them between notes without allocating.
+     *
+     * @throws IllegalArgumentException if the note needs a longer buffer than
+     *         this string has room for. There is always room for the
+     *         frequency passed to the constructor and anything above it.
+     */
+    public void tune(double frequency) {
+        int newPeriod = periodOf(frequency);
+        if (newPeriod > ring.length) {
+            throw new IllegalArgumentException(frequency + " Hz needs a buffer of " + newPeriod
+                    + " samples; this string has " + ring.length);
         }
-
-        // Fill with random values
-        for (int i = 0; i < size; i++) {
-            double r = Math.random() - 0.5;
-            buffer.addLast(r);
+        if (newPeriod != period) {
+            period = newPeriod;
+            decayPerTic = Math.pow(DECAY, 2.0 / period);
         }
+        Arrays.fill(ring, 0, period, 0.0);
+        buffer.reset(period);
+        sumSquares = 0.0;
+    }
+
+    /* Pluck the guitar string by replacing the buffer with white noise. */
+    public void pluck() {
+        // Replace every sample with noise between -0.5 and 0.5: one copy
+        // from the shared NoiseTable, at an offset chosen by xorshift64.
+        noiseState ^= noiseState << 13;
+        noiseState ^= noiseState >>> 7;
+        noiseState ^= noiseState << 17;
+        sumSquares = NoiseTable.fill(ring, period, noiseState);
+        buffer.reset(period);
     }
 
     /* Advance the simulation one time step by performing one iteration of
      * the Karplus-Strong algorithm.
      */
     public void tic() {
-        // Dequeue the front sample
-        double firstSample = buffer.removeFirst();
-
-        // Get the new front sample (which was second before removal)
-        double secondSample = buffer.get(0);
-
-        // Calculate average and apply decay
-        double newSample = DECAY * (firstSample + secondSample) / 2.0;
-
-        // Enqueue the new sample
-        buffer.addLast(newSample);
+        int first = buffer.firstIndex();
+        // With one sample, the front is also the second sample.
+        int second = period == 1 ? first : (first + 1) & mask;
+        ring[(first + period) & mask] = DECAY * (ring[first] + ring[second]) * 0.5;
+        buffer.rotate(1);
+        sumSquares *= decayPerTic;
     }
 
     /* Return the double at the front of the buffer. */
     public double sample() {
         return buffer.get(0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns an estimate of the mean square of the samples in the buffer.
+     * O(1): exact right after a pluck, then decayed by DECAY^2 per trip
+     * around the buffer.
+     */
+    public double energy() {
+        return sumSquares / period;
+    }
+
+    /**
+     * Returns whether the mean square of the buffer is below
+     * {@code threshold}. A string this quiet can stop being ticked until its
+     * next pluck: from here it only gets quieter. Usually O(1); once the
+     * estimate drops below the threshold, the buffer is recounted exactly
+     * (and the estimate corrected) before the answer is yes.
+     */
+    public boolean isSilent(double threshold) {
+        if (energy() >= threshold) {
+            return false;
+        }
+        sumSquares = exactSumSquares();
+        return energy() < threshold;
+    }
+
+    private double exactSumSquares() {
+        int first = buffer.firstIndex();
+        double sum = 0.0;
+        for (int i = 0; i < period; i++) {
+            double x = ring[(first + i) & mask];
+            sum += x * x;
+        }
+        return sum;
+    }
+
+    /**
+     * Writes the next {@code n} samples into {@code out[offset, offset + n)}
+     * and advances the string by {@code n} tics. Produces exactly what
+     * {@code n} rounds of {@code out[k] = sample(); tic();} would.
+     */
+    public void render(double[] out, int offset, int n) {
+        mix(out, offset, n, 1.0, false);
+    }
+
+    /**
+     * Like {@link #render}, but adds {@code gain * sample} to what is
+     * already in {@code out}, so a player can sum many strings into one
+     * block without a scratch buffer.
+     */
+    public void mixInto(double[] out, int offset, int n, double gain) {
+        mix(out, offset, n, gain, true);
+    }
+
+    /* Processes the ring in straight runs from first that stop before the
+     * last slot, so ring[i + 1] never needs a wrap check, and before back
+     * (the slot for the new back sample, period slots after first) wraps.
+     * Within a run, tic k reads ring[first + k] and ring[first + k + 1]
+     * and writes ring[back + k], exactly as tic() would, so runs longer
+     * than period read back what they wrote. The step from the last slot
+     * to ring[0] is taken on its own. */
+    private void mix(double[] out, int offset, int n, double gain, boolean accumulate) {
+        sumSquares *= Math.pow(decayPerTic, n);
+        int first = buffer.firstIndex();
+        buffer.rotate(n);
+        int last = ring.length - 1;
+        while (n > 0) {
+            int back = (first + period) & mask;
+            int run = Math.min(n, Math.min(last - first, ring.length - back));
+            if (run == 0 || period == 1) {
+                int second = period == 1 ? first : (first + 1) & mask;
+                out[offset] = accumulate ? out[offset] + gain * ring[first] : ring[first];
+                ring[back] = DECAY * (ring[first] + ring[second]) * 0.5;
+                first = (first + 1) & mask;
+                offset++;
+                n--;
+                continue;
+            }
+            if (accumulate) {
+                for (int k = 0; k < run; k++) {
+                    out[offset + k] += gain * ring[first + k];
+                    ring[back + k] = DECAY * (ring[first + k] + ring[first + k + 1]) * 0.5;
+                }
+            } else {
+                for (int k = 0; k < run; k++) {
+                    out[offset + k] = ring[first + k];
+                    ring[back + k] = DECAY * (ring[first + k] + ring[first + k + 1]) * 0.5;
+                }
+            }
+            first += run;
+            offset += run;
+            n -= run;
+        }
+    }
+}
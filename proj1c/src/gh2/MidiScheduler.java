@@ -0,0 +1,126 @@
+package gh2;
+
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiMessage;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The events of a MIDI sequence that GuitarPlayer acts on, with the sample
+ * at which each one happens worked out in advance.
+ *
+ * Events from every track are merged in tick order (ties keep track order,
+ * as Track.add does). Tempo changes are applied while the schedule is built:
+ * each one starts a new segment, and an event's time is the sample where
+ * its segment starts plus its ticks into the segment at the segment's
+ * tempo, rounded once. Times are cumulative, so rounding never builds up,
+ * and a tempo change only affects ticks after it.
+ *
+ * A player then renders one uninterrupted run from each event to the next.
+ *
+ * Only note-on, note-off and lyric events are kept. The schedule ends at
+ * the last note event; trailing meta events do not add silence.
+ */
+final class MidiScheduler {
+    private static final int SET_TEMPO = 0x51;
+    private static final int LYRIC = 0x05;
+    /* 120 bpm, the MIDI default until the first tempo event. */
+    private static final int DEFAULT_MICROS_PER_BEAT = 500_000;
+
+    private final long[] at;
+    private final MidiMessage[] messages;
+    private final int size;
+    private final long end;
+
+    /** Schedules the events of SEQUENCE for audio at SAMPLERATE Hz. */
+    MidiScheduler(Sequence sequence, int sampleRate) {
+        List<MidiEvent> events = new ArrayList<>();
+        for (Track track : sequence.getTracks()) {
+            for (int i = 0; i < track.size(); i++) {
+                events.add(track.get(i));
+            }
+        }
+        events.sort(Comparator.comparingLong(MidiEvent::getTick));
+
+        boolean ppq = sequence.getDivisionType() == Sequence.PPQ;
+        int resolution = sequence.getResolution();
+        // SMPTE timing counts ticks per frame at a fixed frame rate, and ignores tempo.
+        double samplesPerTick = ppq
+                ? samplesPerTick(DEFAULT_MICROS_PER_BEAT, resolution, sampleRate)
+                : (double) sampleRate / ((double) sequence.getDivisionType() * resolution);
+        long segmentTick = 0;
+        double segmentSample = 0;
+
+        at = new long[events.size()];
+        messages = new MidiMessage[events.size()];
+        int n = 0;
+        long last = 0;
+        for (MidiEvent event : events) {
+            long tick = event.getTick();
+            MidiMessage msg = event.getMessage();
+            if (msg instanceof MetaMessage) {
+                MetaMessage mm = (MetaMessage) msg;
+                if (mm.getType() == SET_TEMPO && ppq) {
+                    byte[] data = mm.getData();
+                    int tempo = (data[0] & 0xff) << 16 | (data[1] & 0xff) << 8 | (data[2] & 0xff);
+                    segmentSample += (tick - segmentTick) * samplesPerTick;
+                    segmentTick = tick;
+                    samplesPerTick = samplesPerTick(tempo, resolution, sampleRate);
+                    continue;
+                } else if (mm.getType() != LYRIC) {
+                    continue;
+                }
+            } else if (!isNote(msg)) {
+                continue;
+            }
+            at[n] = Math.round(segmentSample + (tick - segmentTick) * samplesPerTick);
+            messages[n] = msg;
+            if (!(msg instanceof MetaMessage)) {
+                last = at[n];
+            }
+            n++;
+        }
+        size = n;
+        end = last;
+    }
+
+    private static double samplesPerTick(int microsPerBeat, int ticksPerBeat, int sampleRate) {
+        return sampleRate * (microsPerBeat / 1e6) / ticksPerBeat;
+    }
+
+    private static boolean isNote(MidiMessage msg) {
+        if (!(msg instanceof ShortMessage)) {
+            return false;
+        }
+        int command = ((ShortMessage) msg).getCommand();
+        return command == ShortMessage.NOTE_ON || command == ShortMessage.NOTE_OFF;
+    }
+
+    /** Returns the number of scheduled events. */
+    int size() {
+        return size;
+    }
+
+    /** Returns the sample at which event I happens. Never decreases with I. */
+    long sampleAt(int i) {
+        return at[i];
+    }
+
+    /**
+     * Returns event I: a note-on or note-off ShortMessage, or a lyric
+     * MetaMessage.
+     */
+    MidiMessage message(int i) {
+        return messages[i];
+    }
+
+    /** Returns the length of the performance in samples: the time of the last note event. */
+    long endSample() {
+        return end;
+    }
+}
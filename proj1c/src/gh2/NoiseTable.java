@@ -0,0 +1,56 @@
+package gh2;
+
+import java.util.SplittableRandom;
+
+/**
+ * A shared table of white noise for plucking GuitarStrings.
+ *
+ * A pluck used to call Math.random() once per buffer sample. Now it copies
+ * a window of this table into the buffer with System.arraycopy, starting
+ * at an offset picked by the string's own seeded generator. The table is
+ * generated once from a fixed seed, and every string reads the same table,
+ * so plucks are reproducible: the same string seed always produces the
+ * same sound.
+ *
+ * Prefix sums of squares are kept next to the table, so the energy of a
+ * copied window is known in O(1) without a pass over the samples.
+ */
+final class NoiseTable {
+    /* 64K samples (512 KiB): longer than the buffer of any MIDI note (the
+     * lowest, 8.2 Hz, needs 5394), so one copy is almost always enough. */
+    static final int SIZE = 1 << 16;
+
+    private static final double[] NOISE = new double[SIZE];
+    private static final double[] PREFIX_SQUARES = new double[SIZE + 1];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x61B);
+        for (int i = 0; i < SIZE; i++) {
+            NOISE[i] = random.nextDouble() - 0.5;
+            PREFIX_SQUARES[i + 1] = PREFIX_SQUARES[i] + NOISE[i] * NOISE[i];
+        }
+    }
+
+    private NoiseTable() {
+    }
+
+    /**
+     * Fills DEST[0, n) with noise in [-0.5, 0.5) read from the table,
+     * starting at an offset derived from RANDOM, and returns the sum of the
+     * squares of what was written. Buffers longer than the table take one
+     * copy per table length.
+     */
+    static double fill(double[] dest, int n, long random) {
+        int offset = (int) Math.floorMod(random, (long) (n <= SIZE ? SIZE - n + 1 : SIZE));
+        double sumSquares = 0.0;
+        int done = 0;
+        while (done < n) {
+            int run = Math.min(n - done, SIZE - offset);
+            System.arraycopy(NOISE, offset, dest, done, run);
+            sumSquares += PREFIX_SQUARES[offset + run] - PREFIX_SQUARES[offset];
+            done += run;
+            offset = 0;
+        }
+        return sumSquares;
+    }
+}
@@ -0,0 +1,134 @@
+package gh2;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mixes one block of many GuitarStrings on a fork-join pool.
+ *
+ * The active voices are cut into fixed groups of {@value #VOICES_PER_GROUP}.
+ * Each group is mixed into its own partial-sum buffer: group 0 by the
+ * caller's thread, the others by fork-join tasks. The caller's thread then
+ * adds the partial buffers into the output, in group order. A string
+ * belongs to exactly one group, so no two threads ever touch the same
+ * string or the same buffer. Because the groups do not depend on how tasks
+ * are scheduled, the output is the same on every run.
+ *
+ * Partial buffers and tasks are allocated once, one task per group, and
+ * each block reinitializes and resubmits them. Nothing ever joins a task:
+ * a thread that blocks in join() or invoke() allocates a wait node, so
+ * instead the last task to finish unparks the caller. Mixing a block
+ * therefore allocates nothing.
+ */
+class ParallelMixer {
+    /* Enough work per task (8 strings x 512 samples) to outweigh forking it. */
+    static final int VOICES_PER_GROUP = 8;
+
+    private final ForkJoinPool pool;
+    private final double[][] partials;
+    private final GroupTask[] tasks;
+
+    /* The block being mixed. Set before the tasks are submitted, which
+     * publishes them to the workers. */
+    private GuitarString[] strings;
+    private double[] vol;
+    private int[] active;
+    private int count;
+    private int len;
+
+    /* Tasks still running in this block, and the thread waiting for them. */
+    private final AtomicInteger pending = new AtomicInteger();
+    private Thread caller;
+
+    /** A mixer using THREADS workers for up to MAXVOICES strings and blocks of up to BLOCKSIZE. */
+    ParallelMixer(int threads, int maxVoices, int blockSize) {
+        pool = new ForkJoinPool(threads);
+        int groups = (maxVoices + VOICES_PER_GROUP - 1) / VOICES_PER_GROUP;
+        partials = new double[groups][blockSize];
+        tasks = new GroupTask[groups];
+        for (int g = 0; g < groups; g++) {
+            tasks[g] = new GroupTask(g);
+        }
+    }
+
+    /**
+     * Sets OUT[0, len) to the sum over k in [0, count) of
+     * vol[active[k]] * strings[active[k]], advancing each of those strings
+     * by LEN samples. Strings not listed in ACTIVE are not touched.
+     */
+    void mix(GuitarString[] strings, double[] vol, int[] active, int count, double[] out, int len) {
+        this.strings = strings;
+        this.vol = vol;
+        this.active = active;
+        this.count = count;
+        this.len = len;
+        int groups = (count + VOICES_PER_GROUP - 1) / VOICES_PER_GROUP;
+        caller = Thread.currentThread();
+        pending.set(groups - 1);
+        for (int g = 1; g < groups; g++) {
+            tasks[g].reinitialize();
+            pool.execute(tasks[g]);
+        }
+        mixGroup(0);
+        while (pending.get() > 0) {
+            LockSupport.park(this);
+        }
+        // The last task unparks us from inside compute(), just before it is
+        // marked done, and reinitialize() must not race with that.
+        for (int g = 1; g < groups; g++) {
+            while (!tasks[g].isDone()) {
+                Thread.yield();
+            }
+            if (tasks[g].isCompletedAbnormally()) {
+                throw new RuntimeException(tasks[g].getException());
+            }
+        }
+        Arrays.fill(out, 0, len, 0.0);
+        for (int g = 0; g < groups; g++) {
+            double[] partial = partials[g];
+            for (int i = 0; i < len; i++) {
+                out[i] += partial[i];
+            }
+        }
+    }
+
+    /** Stops the worker threads. */
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private void mixGroup(int g) {
+        double[] partial = partials[g];
+        Arrays.fill(partial, 0, len, 0.0);
+        int end = Math.min(count, (g + 1) * VOICES_PER_GROUP);
+        for (int k = g * VOICES_PER_GROUP; k < end; k++) {
+            int i = active[k];
+            strings[i].mixInto(partial, 0, len, vol[i]);
+        }
+    }
+
+    /* Mixes one group into its partial buffer, then counts itself done. */
+    private class GroupTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int group;
+
+        GroupTask(int group) {
+            this.group = group;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                mixGroup(group);
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    LockSupport.unpark(caller);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package gh2;
+
+import deque.SpscRingBuffer61B;
+import edu.princeton.cs.algs4.StdAudio;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Plays a set of GuitarStrings live, with synthesis off the UI thread.
+ *
+ * Three threads, each with one job:
+ * - UI thread: calls {@link #pluck(int)} when a key is pressed. It only
+ *   queues a command and never touches a GuitarString.
+ * - synth thread: applies queued plucks at the start of each block, then
+ *   mixes every awake string into a fixed-size block.
+ * - output thread: hands finished blocks to StdAudio (which blocks while
+ *   the sound card catches up).
+ *
+ * Blocks travel between the synth and output threads through two bounded
+ * single-producer/single-consumer rings (SpscRingBuffer61B): one of full
+ * blocks and one of empty blocks to reuse. The number of blocks in
+ * circulation bounds how far synthesis can run ahead of the speaker, and so
+ * bounds key-to-sound latency: with the default 2 blocks of 256 samples
+ * that is about 12 ms plus StdAudio's own buffer. Nothing is allocated per
+ * block.
+ *
+ * If the output thread finds no full block, it counts an underrun and plays
+ * a block of silence so the sound card is never starved.
+ *
+ * Latency is measured from the call to pluck() until the output thread
+ * hands over the block containing the pluck. Any buffering inside StdAudio
+ * and the sound card comes on top of that.
+ */
+public class RealtimeSynth implements AutoCloseable {
+    private static final int DEFAULT_BLOCK_SIZE = 256;
+    private static final int DEFAULT_BLOCKS = 2;
+    private static final double SILENCE_THRESHOLD = 1e-10;
+
+    /* Audio data plus the time of the earliest key press it answers. */
+    private static final class Block {
+        final double[] samples;
+        long keyNanos;
+
+        Block(int size) {
+            samples = new double[size];
+        }
+    }
+
+    /* A key press waiting for the synth thread. */
+    private static final class Pluck {
+        final int string;
+        final long nanos;
+
+        Pluck(int string, long nanos) {
+            this.string = string;
+            this.nanos = nanos;
+        }
+    }
+
+    private final GuitarString[] strings;
+    private final boolean[] awake;
+    private final Consumer<double[]> output;
+    private final double[] silence;
+    private final long blockNanos;
+
+    private final SpscRingBuffer61B<Pluck> plucks;
+    private final SpscRingBuffer61B<Block> full;
+    private final SpscRingBuffer61B<Block> empty;
+
+    private final Thread synthThread;
+    private final Thread outputThread;
+    private volatile boolean running;
+
+    /* Written only by the output thread. */
+    private volatile long blocksPlayed;
+    private volatile long underruns;
+    private volatile long keysHeard;
+    private volatile long totalLatencyNanos;
+    private volatile long maxLatencyNanos;
+    private volatile long lastLatencyNanos;
+
+    /** Plays STRINGS through StdAudio with the default block size and depth. */
+    public RealtimeSynth(GuitarString[] strings) {
+        this(strings, DEFAULT_BLOCK_SIZE, DEFAULT_BLOCKS, StdAudio::play);
+    }
+
+    /**
+     * @param strings the strings to play; only the synth thread touches them
+     *                once {@link #start()} is called
+     * @param blockSize samples per block
+     * @param blocks blocks in circulation, at least 2
+     * @param output receives each block on the output thread, and must not
+     *               keep a reference to it; normally StdAudio::play
+     */
+    public RealtimeSynth(GuitarString[] strings, int blockSize, int blocks, Consumer<double[]> output) {
+        if (blockSize < 1 || blocks < 2) {
+            throw new IllegalArgumentException("need blockSize >= 1 and blocks >= 2");
+        }
+        this.strings = strings;
+        this.output = output;
+        awake = new boolean[strings.length];
+        silence = new double[blockSize];
+        blockNanos = 1_000_000_000L * blockSize / StdAudio.SAMPLE_RATE;
+        plucks = new SpscRingBuffer61B<>(64);
+        full = new SpscRingBuffer61B<>(blocks);
+        empty = new SpscRingBuffer61B<>(blocks);
+        for (int i = 0; i < blocks; i++) {
+            empty.offer(new Block(blockSize));
+        }
+        synthThread = new Thread(this::synthLoop, "gh2-synth");
+        outputThread = new Thread(this::outputLoop, "gh2-audio-out");
+        synthThread.setDaemon(true);
+        outputThread.setDaemon(true);
+    }
+
+    /** Starts the synth and output threads. */
+    public void start() {
+        running = true;
+        synthThread.start();
+        outputThread.start();
+    }
+
+    /**
+     * UI thread only. Plucks string I at the start of the next block.
+     * Returns false, and drops the press, if 64 presses are already waiting.
+     */
+    public boolean pluck(int i) {
+        if (i < 0 || i >= strings.length) {
+            throw new IndexOutOfBoundsException("string " + i + " of " + strings.length);
+        }
+        return plucks.offer(new Pluck(i, System.nanoTime()));
+    }
+
+    private void synthLoop() {
+        while (running) {
+            Block block = empty.poll();
+            if (block == null) {
+                // The output thread is a full ring behind; wait for a block to come back.
+                LockSupport.parkNanos(blockNanos / 4);
+                continue;
+            }
+            block.keyNanos = 0;
+            for (Pluck p = plucks.poll(); p != null; p = plucks.poll()) {
+                strings[p.string].pluck();
+                awake[p.string] = true;
+                if (block.keyNanos == 0) {
+                    block.keyNanos = p.nanos;
+                }
+            }
+            double[] samples = block.samples;
+            Arrays.fill(samples, 0.0);
+            for (int i = 0; i < strings.length; i++) {
+                if (awake[i]) {
+                    strings[i].mixInto(samples, 0, samples.length, 1.0);
+                    awake[i] = !strings[i].isSilent(SILENCE_THRESHOLD);
+                }
+            }
+            full.offer(block);
+        }
+    }
+
+    private void outputLoop() {
+        while (running) {
+            Block block = full.poll();
+            if (block == null) {
+                underruns++;
+                output.accept(silence);
+                continue;
+            }
+            if (block.keyNanos != 0) {
+                long latency = System.nanoTime() - block.keyNanos;
+                lastLatencyNanos = latency;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                totalLatencyNanos += latency;
+                keysHeard++;
+            }
+            output.accept(block.samples);
+            blocksPlayed++;
+            empty.offer(block);
+        }
+    }
+
+    /** Returns how many synthesized blocks have been handed to the output. */
+    public long blocksPlayed() {
+        return blocksPlayed;
+    }
+
+    /** Returns how many times the output found no block ready and played silence instead. */
+    public long underruns() {
+        return underruns;
+    }
+
+    /** Returns the key-to-sound latency of the most recent heard pluck, in ms. */
+    public double lastLatencyMillis() {
+        return lastLatencyNanos / 1e6;
+    }
+
+    /** Returns the mean key-to-sound latency over all heard plucks, in ms. */
+    public double meanLatencyMillis() {
+        long keys = keysHeard;
+        return keys == 0 ? 0 : totalLatencyNanos / 1e6 / keys;
+    }
+
+    /** Returns the worst key-to-sound latency so far, in ms. */
+    public double maxLatencyMillis() {
+        return maxLatencyNanos / 1e6;
+    }
+
+    /** Stops both threads and waits for them to finish. */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            synthThread.join();
+            outputThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package gh2;
+
+import java.util.Arrays;
+
+/**
+ * A polyphonic Karplus-Strong synthesizer with a fixed pool of voices.
+ *
+ * Unlike the original GuitarPlayer, which owned exactly one GuitarString
+ * per MIDI note, any voice can play any note, and one note can sound on
+ * several voices at once: striking a note that is already ringing starts a
+ * new voice and leaves the old one to ring out.
+ *
+ * Every voice is a GuitarString sized for the lowest MIDI note, so
+ * {@link GuitarString#tune} can move it to any note without allocating.
+ * All bookkeeping arrays are allocated in the constructor. After that,
+ * noteOn, noteOff and render allocate nothing, on one thread or several
+ * (see ParallelMixer), so dense MIDI files (thousands of note-ons per
+ * second) cause no garbage collection.
+ *
+ * A voice is either free (on the free stack) or active (in the active-voice
+ * index, mixed every block). It goes back to the free stack when:
+ * - its note is released: noteOff frees the oldest voice playing that note,
+ *   which silences it at once, as setting the volume to 0 used to;
+ * - it decays below the silence threshold; or
+ * - noteOn finds no free voice and steals it because it is the quietest
+ *   active voice, judged by gain^2 * energy.
+ */
+public class SynthEngine {
+    /** Longest block that can be mixed on more than one thread. */
+    public static final int MAX_BLOCK_SIZE = 512;
+
+    private static final int NOTES = 128;
+    private static final double DEFAULT_SILENCE_THRESHOLD = 1e-10;
+
+    private final GuitarString[] voices;
+    private final double[] gain;
+    private final int[] note;
+    /* Which strike of a note a voice is playing, so note-off releases the oldest. */
+    private final long[] struckAt;
+    private long strikes;
+
+    /* Active-voice index: active[0, activeCount), with slot[v] the position
+     * of voice v in it or -1. O(1) add and remove. */
+    private final int[] active;
+    private final int[] slot;
+    private int activeCount;
+
+    /* Stack of free voices. */
+    private final int[] free;
+    private int freeCount;
+
+    private final double[] frequencies;
+    private double silenceThreshold = DEFAULT_SILENCE_THRESHOLD;
+    private ParallelMixer mixer;
+
+    private long blocksMixed;
+    private long voiceBlocksMixed;
+    private long voicesSlept;
+    private long voicesStolen;
+    private int peakActiveVoices;
+
+    /**
+     * Creates an engine with MAXVOICES voices. Voice i plucks with seed
+     * {@code seed + i}, so a performance is reproducible for a given seed.
+     */
+    public SynthEngine(int maxVoices, long seed) {
+        if (maxVoices < 1) {
+            throw new IllegalArgumentException("maxVoices must be at least 1: " + maxVoices);
+        }
+        frequencies = new double[NOTES];
+        for (int i = 0; i < NOTES; i++) {
+            frequencies[i] = 440.0 * Math.pow(2.0, (i - 69.0) / 12.0);
+        }
+        voices = new GuitarString[maxVoices];
+        gain = new double[maxVoices];
+        note = new int[maxVoices];
+        struckAt = new long[maxVoices];
+        active = new int[maxVoices];
+        slot = new int[maxVoices];
+        free = new int[maxVoices];
+        for (int v = 0; v < maxVoices; v++) {
+            voices[v] = new GuitarString(frequencies[0], seed + v);
+            slot[v] = -1;
+            free[freeCount++] = maxVoices - 1 - v;
+        }
+    }
+
+    /**
+     * Mixes voices on THREADS threads when enough are active; 1 mixes on the
+     * calling thread. Call {@link #close()} when done if THREADS > 1.
+     */
+    public void setThreads(int threads) {
+        close();
+        if (threads > 1) {
+            mixer = new ParallelMixer(threads, voices.length, MAX_BLOCK_SIZE);
+        }
+    }
+
+    /** Sets the mean square below which a voice is considered silent and freed. */
+    public void setSilenceThreshold(double threshold) {
+        if (!(threshold >= 0)) {
+            throw new IllegalArgumentException("threshold must be non-negative: " + threshold);
+        }
+        silenceThreshold = threshold;
+    }
+
+    /**
+     * Starts NOTE (a MIDI note number) on a voice at VELOCITY, in [0, 1].
+     * A velocity of 0 means note-off, as in MIDI.
+     */
+    public void noteOn(int n, double velocity) {
+        if (velocity <= 0) {
+            noteOff(n);
+            return;
+        }
+        int v = freeCount > 0 ? free[--freeCount] : steal();
+        voices[v].tune(frequencies[n]);
+        voices[v].pluck();
+        gain[v] = velocity;
+        note[v] = n;
+        struckAt[v] = strikes++;
+        slot[v] = activeCount;
+        active[activeCount++] = v;
+    }
+
+    /** Releases the oldest voice playing NOTE, if any. */
+    public void noteOff(int n) {
+        int oldest = -1;
+        for (int k = 0; k < activeCount; k++) {
+            int v = active[k];
+            if (note[v] == n && (oldest < 0 || struckAt[v] < struckAt[oldest])) {
+                oldest = v;
+            }
+        }
+        if (oldest >= 0) {
+            release(oldest);
+        }
+    }
+
+    /* Takes the quietest active voice out of the index for reuse. */
+    private int steal() {
+        int quietest = active[0];
+        double lowest = Double.MAX_VALUE;
+        for (int k = 0; k < activeCount; k++) {
+            int v = active[k];
+            double loudness = gain[v] * gain[v] * voices[v].energy();
+            if (loudness < lowest) {
+                lowest = loudness;
+                quietest = v;
+            }
+        }
+        deactivate(quietest);
+        voicesStolen++;
+        return quietest;
+    }
+
+    private void deactivate(int v) {
+        int k = slot[v];
+        int moved = active[--activeCount];
+        active[k] = moved;
+        slot[moved] = k;
+        slot[v] = -1;
+    }
+
+    private void release(int v) {
+        deactivate(v);
+        free[freeCount++] = v;
+    }
+
+    /**
+     * Sets OUT[offset, offset + n) to the sum of every active voice, then
+     * frees the voices that have decayed below the silence threshold.
+     * Blocks longer than {@link #MAX_BLOCK_SIZE}, or not starting at 0, are
+     * always mixed on the calling thread.
+     */
+    public void render(double[] out, int offset, int n) {
+        blocksMixed++;
+        voiceBlocksMixed += activeCount;
+        peakActiveVoices = Math.max(peakActiveVoices, activeCount);
+        if (mixer != null && offset == 0 && n <= MAX_BLOCK_SIZE
+                && activeCount >= 2 * ParallelMixer.VOICES_PER_GROUP) {
+            mixer.mix(voices, gain, active, activeCount, out, n);
+        } else {
+            Arrays.fill(out, offset, offset + n, 0.0);
+            for (int k = 0; k < activeCount; k++) {
+                voices[active[k]].mixInto(out, offset, n, gain[active[k]]);
+            }
+        }
+        for (int k = activeCount - 1; k >= 0; k--) {
+            int v = active[k];
+            if (voices[v].isSilent(silenceThreshold)) {
+                release(v);
+                voicesSlept++;
+            }
+        }
+    }
+
+    /** Returns the number of voices in the pool. */
+    public int maxVoices() {
+        return voices.length;
+    }
+
+    /** Returns the number of voices sounding right now. */
+    public int activeVoices() {
+        return activeCount;
+    }
+
+    /** Returns the most voices mixed in any one block. */
+    public int peakActiveVoices() {
+        return peakActiveVoices;
+    }
+
+    /** Returns the mean number of voices mixed per block. */
+    public double averageActiveVoices() {
+        return blocksMixed == 0 ? 0 : (double) voiceBlocksMixed / blocksMixed;
+    }
+
+    /** Returns how many voices decayed below the silence threshold and were freed. */
+    public long voicesSlept() {
+        return voicesSlept;
+    }
+
+    /** Returns how many note-ons found every voice busy and stole one. */
+    public long voicesStolen() {
+        return voicesStolen;
+    }
+
+    /** Stops the mixing threads, if any. */
+    public void close() {
+        if (mixer != null) {
+            mixer.shutdown();
+            mixer = null;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package gh2;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Base64;
 import java.util.zip.GZIPInputStream;
 
@@ -17,7 +18,12 @@ public class TTFAF {
             InputStream source = new ByteArrayInputStream(Base64.getDecoder().decode(TTFAF));
             source = new GZIPInputStream(source);
             GuitarPlayer player = new GuitarPlayer(source);
-            player.play();
+            if (args.length > 0) {
+                // Given a file name, render offline to WAV instead of playing.
+                player.renderToWav(Path.of(args[0]));
+            } else {
+                player.play();
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -25,6 +31,8 @@ public class TTFAF {
         // You can also do this:
         // GuitarPlayer player = new GuitarPlayer(new java.io.File("path/to/music.mid"));
         // player.play();
+        // or, to write a WAV file without waiting for the song to play:
+        // player.renderToWav(java.nio.file.Path.of("music.wav"));
     }
 
     private static final String TTFAF =
@@ -0,0 +1,105 @@
+package gh2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams mono 16-bit PCM samples to a WAV file.
+ *
+ * Samples are converted into a fixed direct buffer and written through a
+ * FileChannel whenever the buffer fills, so memory use does not grow with
+ * the length of the audio. The RIFF and data chunk sizes are not known
+ * until the end, so {@link #close()} goes back and patches them into the
+ * header.
+ *
+ * Samples are clamped to [-1, 1], as StdAudio does. A WAV file cannot hold
+ * more than 4 GiB of data, which is about 13.5 hours at 44.1 kHz.
+ *
+ * A failed write leaves the render unable to continue, so IOExceptions are
+ * wrapped in RuntimeExceptions rather than declared on every method.
+ */
+public class WavWriter implements AutoCloseable {
+    private static final int HEADER_BYTES = 44;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final long MAX_DATA_BYTES = 0xFFFFFFFFL - (HEADER_BYTES - 8);
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int sampleRate;
+    private long dataBytes;
+
+    /** Creates (or truncates) the WAV file at PATH for audio at SAMPLERATE Hz. */
+    public WavWriter(Path path, int sampleRate) {
+        this.sampleRate = sampleRate;
+        buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_BYTES);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /** Appends SAMPLES[offset, offset + n) to the file. */
+    public void write(double[] samples, int offset, int n) {
+        if (dataBytes + 2L * n > MAX_DATA_BYTES) {
+            throw new IllegalStateException("WAV data cannot exceed 4 GiB");
+        }
+        for (int i = offset; i < offset + n; i++) {
+            if (buffer.remaining() < Short.BYTES) {
+                flush();
+            }
+            double x = Math.max(-1.0, Math.min(1.0, samples[i]));
+            buffer.putShort((short) (x * Short.MAX_VALUE));
+        }
+        dataBytes += 2L * n;
+    }
+
+    /** Returns the number of samples written so far. */
+    public long samplesWritten() {
+        return dataBytes / Short.BYTES;
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        buffer.clear();
+    }
+
+    /** Writes out any buffered samples, fills in the header and closes the file. */
+    @Override
+    public void close() {
+        flush();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt((int) (HEADER_BYTES - 8 + dataBytes));
+        header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);                  // fmt chunk size
+        header.putShort((short) 1);         // PCM
+        header.putShort((short) 1);         // mono
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * Short.BYTES);  // bytes per second
+        header.putShort((short) Short.BYTES);     // bytes per frame
+        header.putShort((short) 16);              // bits per sample
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt((int) dataBytes);
+        header.flip();
+        try {
+            channel.write(header, 0);
+            channel.close();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
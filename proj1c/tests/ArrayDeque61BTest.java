@@ -0,0 +1,245 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import deque.ArrayDeque61B;
+import deque.Deque61B;
+import deque.LinkedListDeque61B;
+import deque.MaxArrayDeque61B;
+import deque.ResizePolicy;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArrayDeque61BTest {
+
+    /** Builds a deque whose items wrap around the end of the backing array. */
+    private static ArrayDeque61B<Integer> wrappedDeque() {
+        ArrayDeque61B<Integer> ad = new ArrayDeque61B<>();
+        for (int i = 3; i >= 0; i--) {
+            ad.addFirst(i);
+        }
+        for (int i = 4; i < 7; i++) {
+            ad.addLast(i);
+        }
+        return ad;
+    }
+
+    @Test
+    public void addAllLastArrayTest() {
+        ArrayDeque61B<Integer> ad = wrappedDeque();
+        ad.addAllLast(new Integer[]{7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 17; i++) {
+            expected.add(i);
+        }
+        assertThat(ad.toList()).containsExactlyElementsIn(expected).inOrder();
+        assertThat(ad.size()).isEqualTo(17);
+        assertThat(ad.get(16)).isEqualTo(16);
+    }
+
+    @Test
+    public void addAllLastCollectionTest() {
+        ArrayDeque61B<Integer> ad = wrappedDeque();
+        ad.addAllLast(List.of(7));
+        assertThat(ad.toList()).containsExactly(0, 1, 2, 3, 4, 5, 6, 7).inOrder();
+        ad.addLast(8);
+        assertThat(ad.removeLast()).isEqualTo(8);
+    }
+
+    @Test
+    public void removeFirstIntoArrayTest() {
+        ArrayDeque61B<Integer> ad = wrappedDeque();
+        Integer[] dest = new Integer[5];
+        assertThat(ad.removeFirst(dest, 5)).isEqualTo(5);
+        assertThat(List.of(dest)).containsExactly(0, 1, 2, 3, 4).inOrder();
+        assertThat(ad.toList()).containsExactly(5, 6).inOrder();
+
+        Integer[] rest = new Integer[10];
+        assertThat(ad.removeFirst(rest, 10)).isEqualTo(2);
+        assertThat(ad.isEmpty()).isTrue();
+        ad.addLast(42);
+        assertThat(ad.get(0)).isEqualTo(42);
+    }
+
+    @Test
+    public void bulkDrainShrinksTest() {
+        ArrayDeque61B<Integer> ad = new ArrayDeque61B<>();
+        Integer[] xs = new Integer[1000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i;
+        }
+        ad.addAllLast(xs);
+        Integer[] dest = new Integer[998];
+        ad.removeFirst(dest, 998);
+        assertThat(dest[997]).isEqualTo(997);
+        assertThat(ad.toList()).containsExactly(998, 999).inOrder();
+        assertThat(ad.toString()).contains("capacity=8");
+    }
+
+    @Test
+    public void getRecursiveMillionElementsTest() {
+        int n = 1_000_000;
+        ArrayDeque61B<Integer> ad = new ArrayDeque61B<>();
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            ad.addFirst(i);
+        }
+        for (int i = n / 2; i < n; i++) {
+            ad.addLast(i);
+        }
+        int[] indices = {0, 1, 2, n / 2, 3 * n / 4 + 1, n - 1};
+        for (int i : indices) {
+            assertThat(ad.getRecursive(i)).isEqualTo(i);
+        }
+        for (int i = 0; i < 8; i++) {
+            assertThat(wrappedDeque().getRecursive(i)).isEqualTo(i < 7 ? i : null);
+        }
+    }
+
+    @Test
+    public void initialCapacityAndCountersTest() {
+        ArrayDeque61B<Integer> ad = new ArrayDeque61B<>(100);
+        assertThat(ad.capacity()).isEqualTo(128);
+        for (int i = 0; i < 128; i++) {
+            ad.addLast(i);
+        }
+        assertThat(ad.resizeCount()).isEqualTo(0L);
+        ad.addFirst(-1);
+        assertThat(ad.capacity()).isEqualTo(256);
+        assertThat(ad.resizeCount()).isEqualTo(1L);
+        assertThat(ad.copiedElements()).isEqualTo(128L);
+        assertThat(ad.get(0)).isEqualTo(-1);
+        assertThat(ad.get(128)).isEqualTo(127);
+
+        ArrayDeque61B<Integer> tiny = new ArrayDeque61B<>(1);
+        tiny.addLast(1);
+        tiny.addFirst(0);
+        tiny.addLast(2);
+        assertThat(tiny.toList()).containsExactly(0, 1, 2).inOrder();
+    }
+
+    @Test
+    public void customPolicyTest() {
+        ResizePolicy policy = new ResizePolicy(4, 0.125, 32);
+        ArrayDeque61B<Integer> ad = new ArrayDeque61B<>(32, policy);
+        for (int i = 0; i < 33; i++) {
+            ad.addLast(i);
+        }
+        assertThat(ad.capacity()).isEqualTo(128);
+        for (int i = 0; i < 17; i++) {
+            ad.removeFirst();
+        }
+        assertThat(ad.capacity()).isEqualTo(128);
+        ad.removeFirst();
+        assertThat(ad.capacity()).isEqualTo(32);
+        for (int i = 0; i < 15; i++) {
+            ad.removeFirst();
+        }
+        assertThat(ad.capacity()).isEqualTo(32);
+        assertThat(ad.resizeCount()).isEqualTo(2L);
+
+        assertThrows(IllegalArgumentException.class, () -> new ResizePolicy(2, 0.5, 8));
+        assertThrows(IllegalArgumentException.class, () -> new ResizePolicy(3, 0.1, 8));
+        assertThrows(IllegalArgumentException.class, () -> new ResizePolicy(2, 0.25, 10));
+    }
+
+    @Test
+    public void iteratorTest() {
+        List<Integer> seen = new ArrayList<>();
+        for (int x : wrappedDeque()) {
+            seen.add(x);
+        }
+        assertThat(seen).containsExactly(0, 1, 2, 3, 4, 5, 6).inOrder();
+    }
+
+    @Test
+    public void iteratorFailFastTest() {
+        ArrayDeque61B<Integer> ad = wrappedDeque();
+        Iterator<Integer> it = ad.iterator();
+        it.next();
+        ad.addLast(7);
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    public void parallelStreamTest() {
+        ArrayDeque61B<Integer> ad = new ArrayDeque61B<>();
+        for (int i = 0; i < 10000; i++) {
+            ad.addFirst(-i);
+            ad.addLast(i);
+        }
+        List<Integer> expected = ad.toList();
+        assertThat(ad.stream().parallel().collect(Collectors.toList())).containsExactlyElementsIn(expected).inOrder();
+        assertThat(ad.stream().parallel().mapToLong(x -> x).sum()).isEqualTo(0L);
+    }
+
+    @Test
+    public void toArrayTest() {
+        assertThat(List.of(wrappedDeque().toArray())).containsExactly(0, 1, 2, 3, 4, 5, 6).inOrder();
+
+        Deque61B<Integer> lld = new LinkedListDeque61B<>();
+        lld.addAllLast(List.of(1, 2, 3));
+        assertThat(List.of(lld.toArray())).containsExactly(1, 2, 3).inOrder();
+    }
+
+    @Test
+    public void equalsAcrossImplementationsTest() {
+        ArrayDeque61B<Integer> ad = wrappedDeque();
+        LinkedListDeque61B<Integer> lld = new LinkedListDeque61B<>();
+        MaxArrayDeque61B<Integer> mad = new MaxArrayDeque61B<>(Integer::compare);
+        for (int i = 0; i < 7; i++) {
+            lld.addLast(i);
+            mad.addLast(i);
+        }
+
+        assertThat(ad.equals(lld)).isTrue();
+        assertThat(lld.equals(ad)).isTrue();
+        assertThat(ad.equals(mad)).isTrue();
+        assertThat(mad.equals(ad)).isTrue();
+        assertThat(mad.equals(lld)).isTrue();
+        assertThat(ad.hashCode()).isEqualTo(lld.hashCode());
+        assertThat(ad.hashCode()).isEqualTo(mad.hashCode());
+        assertThat(ad.hashCode()).isEqualTo(List.of(0, 1, 2, 3, 4, 5, 6).hashCode());
+
+        lld.removeLast();
+        lld.addLast(7);
+        assertThat(ad.equals(lld)).isFalse();
+        assertThat(lld.equals(ad)).isFalse();
+        assertThat(ad.equals(List.of(0, 1, 2, 3, 4, 5, 6))).isFalse();
+    }
+
+    @Test
+    public void regionEqualsTest() {
+        // Same items, different capacities and wrap points, so the
+        // comparison has to cross both arrays' ends at different places.
+        ArrayDeque61B<Integer> small = wrappedDeque();
+        ArrayDeque61B<Integer> large = new ArrayDeque61B<>(64);
+        for (int i = 6; i >= 0; i--) {
+            large.addFirst(i);
+        }
+        assertThat(small.equals(large)).isTrue();
+        assertThat(large.equals(small)).isTrue();
+        assertThat(small.hashCode()).isEqualTo(large.hashCode());
+
+        large.removeFirst();
+        large.addFirst(-1);
+        assertThat(small.equals(large)).isFalse();
+        assertThat(large.equals(small)).isFalse();
+    }
+
+    @Test
+    public void mapKeyTest() {
+        Map<Deque61B<Integer>, String> map = new HashMap<>();
+        map.put(wrappedDeque(), "array");
+        LinkedListDeque61B<Integer> lld = new LinkedListDeque61B<>();
+        for (int i = 0; i < 7; i++) {
+            lld.addLast(i);
+        }
+        assertThat(map.get(lld)).isEqualTo("array");
+    }
+}
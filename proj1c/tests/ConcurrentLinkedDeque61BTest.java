@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+
+import deque.ConcurrentLinkedDeque61B;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ConcurrentLinkedDeque61BTest {
+
+    @Test
+    public void basicTest() {
+        ConcurrentLinkedDeque61B<Integer> cld = new ConcurrentLinkedDeque61B<>();
+        assertThat(cld.removeFirst()).isNull();
+        cld.addLast(2);
+        cld.addFirst(1);
+        cld.addLast(3);
+        assertThat(cld.size()).isEqualTo(3);
+        assertThat(cld.get(2)).isEqualTo(3);
+        assertThat(cld.get(3)).isNull();
+        assertThat(cld.toList()).containsExactly(1, 2, 3).inOrder();
+        assertThat(cld.removeLast()).isEqualTo(3);
+        assertThat(cld.removeFirst()).isEqualTo(1);
+        assertThat(cld.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void producersAndConsumersTest() throws InterruptedException {
+        ConcurrentLinkedDeque61B<Integer> cld = new ConcurrentLinkedDeque61B<>();
+        int perThread = 20000;
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    cld.addLast(1);
+                    cld.addFirst(1);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread p : producers) {
+            p.join();
+        }
+        assertThat(cld.size()).isEqualTo(2 * perThread * producers.length);
+
+        long[] sums = new long[4];
+        Thread[] consumers = new Thread[sums.length];
+        for (int t = 0; t < consumers.length; t++) {
+            int id = t;
+            consumers[t] = new Thread(() -> {
+                Integer x;
+                while ((x = (id % 2 == 0 ? cld.removeFirst() : cld.removeLast())) != null) {
+                    sums[id] += x;
+                }
+            });
+            consumers[t].start();
+        }
+        long total = 0;
+        for (int t = 0; t < consumers.length; t++) {
+            consumers[t].join();
+            total += sums[t];
+        }
+        assertThat(total).isEqualTo(2L * perThread * producers.length);
+        assertThat(cld.isEmpty()).isTrue();
+        assertThat(cld.size()).isEqualTo(0);
+    }
+}
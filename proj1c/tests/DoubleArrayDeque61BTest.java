@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import deque.DoubleArrayDeque61B;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DoubleArrayDeque61BTest {
+
+    @Test
+    public void addAndGetTest() {
+        DoubleArrayDeque61B dad = new DoubleArrayDeque61B();
+        dad.addLast(1.0);
+        dad.addLast(2.0);
+        dad.addFirst(0.0);
+        assertThat(dad.size()).isEqualTo(3);
+        assertThat(dad.get(0)).isEqualTo(0.0);
+        assertThat(dad.get(2)).isEqualTo(2.0);
+        assertThat(dad.toList()).containsExactly(0.0, 1.0, 2.0).inOrder();
+    }
+
+    @Test
+    public void resizeUpAndDownTest() {
+        DoubleArrayDeque61B dad = new DoubleArrayDeque61B();
+        for (int i = 0; i < 100; i++) {
+            dad.addLast(i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertThat(dad.get(i)).isEqualTo((double) i);
+        }
+        for (int i = 0; i < 99; i++) {
+            assertThat(dad.removeFirst()).isEqualTo((double) i);
+        }
+        assertThat(dad.removeLast()).isEqualTo(99.0);
+        assertThat(dad.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void emptyAndOutOfBoundsTest() {
+        DoubleArrayDeque61B dad = new DoubleArrayDeque61B();
+        assertThrows(NoSuchElementException.class, dad::removeFirst);
+        assertThrows(NoSuchElementException.class, dad::removeLast);
+        dad.addLast(1.0);
+        assertThrows(IndexOutOfBoundsException.class, () -> dad.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> dad.get(-1));
+    }
+
+    @Test
+    public void rotateAndResetTest() {
+        DoubleArrayDeque61B dad = new DoubleArrayDeque61B(5);
+        double[] ring = dad.ring();
+        assertThat(ring.length).isEqualTo(8);
+        for (int i = 0; i < 5; i++) {
+            ring[i] = i;
+        }
+        dad.reset(5);
+        assertThat(dad.firstIndex()).isEqualTo(0);
+        assertThat(dad.toList()).containsExactly(0.0, 1.0, 2.0, 3.0, 4.0).inOrder();
+
+        // Ten rounds of addLast(removeFirst() + 10), written through the ring.
+        for (int i = 0; i < 10; i++) {
+            int first = dad.firstIndex();
+            ring[(first + 5) & 7] = ring[first] + 10;
+            dad.rotate(1);
+        }
+        assertThat(dad.size()).isEqualTo(5);
+        assertThat(dad.ring()).isSameInstanceAs(ring);
+        assertThat(dad.toList()).containsExactly(20.0, 21.0, 22.0, 23.0, 24.0).inOrder();
+        assertThat(dad.removeFirst()).isEqualTo(20.0);
+        assertThat(dad.removeLast()).isEqualTo(24.0);
+
+        assertThrows(IllegalArgumentException.class, () -> dad.reset(9));
+        assertThrows(IllegalArgumentException.class, () -> dad.rotate(-1));
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import deque.LinkedListDeque61B;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LinkedListDeque61BTest {
+
+    @Test
+    public void iteratorTest() {
+        LinkedListDeque61B<String> lld = new LinkedListDeque61B<>();
+        lld.addLast("b");
+        lld.addLast("c");
+        lld.addFirst("a");
+        List<String> seen = new ArrayList<>();
+        for (String s : lld) {
+            seen.add(s);
+        }
+        assertThat(seen).containsExactly("a", "b", "c").inOrder();
+        assertThat(lld.stream().parallel().collect(Collectors.joining())).isEqualTo("abc");
+    }
+
+    @Test
+    public void getFromBothEndsTest() {
+        LinkedListDeque61B<Integer> lld = new LinkedListDeque61B<>();
+        for (int i = 0; i < 9; i++) {
+            lld.addLast(i);
+        }
+        for (int i = 0; i < 9; i++) {
+            assertThat(lld.get(i)).isEqualTo(i);
+            assertThat(lld.getRecursive(i)).isEqualTo(i);
+        }
+        assertThat(lld.get(9)).isNull();
+        assertThat(lld.getRecursive(-1)).isNull();
+    }
+
+    @Test
+    public void getMillionElementsTest() {
+        int n = 1_000_000;
+        LinkedListDeque61B<Integer> lld = new LinkedListDeque61B<>();
+        for (int i = 0; i < n; i++) {
+            lld.addLast(i);
+        }
+        int[] indices = {0, 1, n / 2 - 1, n / 2, n / 2 + 1, 3 * n / 4, n - 2, n - 1};
+        for (int i : indices) {
+            assertThat(lld.get(i)).isEqualTo(i);
+            assertThat(lld.getRecursive(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void iteratorFailFastTest() {
+        LinkedListDeque61B<String> lld = new LinkedListDeque61B<>();
+        lld.addLast("a");
+        lld.addLast("b");
+        Iterator<String> it = lld.iterator();
+        it.next();
+        lld.removeLast();
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+}
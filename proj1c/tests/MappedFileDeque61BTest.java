@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import deque.ArrayDeque61B;
+import deque.MappedFileDeque61B;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class MappedFileDeque61BTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] b) {
+        return b == null ? null : new String(b, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void survivesReopenTest() throws IOException {
+        Path path = Files.createTempFile("deque", ".log");
+        try {
+            try (MappedFileDeque61B mfd = new MappedFileDeque61B(path)) {
+                mfd.addLast(bytes("b"));
+                mfd.addLast(bytes("c"));
+                mfd.addFirst(bytes("a"));
+                mfd.addLast(bytes("drop me"));
+                assertThat(string(mfd.removeLast())).isEqualTo("drop me");
+            }
+            try (MappedFileDeque61B mfd = new MappedFileDeque61B(path)) {
+                assertThat(mfd.size()).isEqualTo(3);
+                assertThat(string(mfd.get(1))).isEqualTo("b");
+                assertThat(string(mfd.removeFirst())).isEqualTo("a");
+                assertThat(string(mfd.removeLast())).isEqualTo("c");
+                assertThat(string(mfd.removeFirst())).isEqualTo("b");
+                assertThat(mfd.removeFirst()).isNull();
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void growsAcrossWrapTest() throws IOException {
+        Path path = Files.createTempFile("deque", ".log");
+        try (MappedFileDeque61B mfd = new MappedFileDeque61B(path)) {
+            Random random = new Random(61);
+            ArrayDeque<byte[]> expected = new ArrayDeque<>();
+            for (int i = 0; i < 20000; i++) {
+                int op = random.nextInt(5);
+                byte[] x = new byte[random.nextInt(300)];
+                random.nextBytes(x);
+                if (op == 0) {
+                    mfd.addFirst(x);
+                    expected.addFirst(x);
+                } else if (op == 1 || op == 2) {
+                    mfd.addLast(x);
+                    expected.addLast(x);
+                } else if (op == 3) {
+                    byte[] e = expected.pollFirst();
+                    assertThat(Arrays.equals(mfd.removeFirst(), e)).isTrue();
+                } else {
+                    byte[] e = expected.pollLast();
+                    assertThat(Arrays.equals(mfd.removeLast(), e)).isTrue();
+                }
+            }
+            assertThat(mfd.capacity()).isGreaterThan(4096);
+            assertThat(mfd.size()).isEqualTo(expected.size());
+            int i = 0;
+            for (byte[] e : expected) {
+                assertThat(Arrays.equals(mfd.get(i++), e)).isTrue();
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void equalsAndHashCodeByContentTest() throws IOException {
+        Path p1 = Files.createTempFile("deque", ".log");
+        Path p2 = Files.createTempFile("deque", ".log");
+        try (MappedFileDeque61B a = new MappedFileDeque61B(p1);
+             MappedFileDeque61B b = new MappedFileDeque61B(p2)) {
+            a.addLast(bytes("x"));
+            a.addLast(bytes("yz"));
+            b.addFirst(bytes("yz"));
+            b.addFirst(bytes("x"));
+
+            int hash = a.hashCode();
+            assertThat(a.hashCode()).isEqualTo(hash);
+            assertThat(b.hashCode()).isEqualTo(hash);
+            assertThat(a.equals(b)).isTrue();
+            assertThat(b.equals(a)).isTrue();
+
+            b.removeLast();
+            b.addLast(bytes("yZ"));
+            assertThat(a.equals(b)).isFalse();
+        } finally {
+            Files.deleteIfExists(p1);
+            Files.deleteIfExists(p2);
+        }
+    }
+
+    @Test
+    public void emptyEqualsOtherEmptyDequesTest() throws IOException {
+        Path p = Files.createTempFile("deque", ".log");
+        try (MappedFileDeque61B mapped = new MappedFileDeque61B(p)) {
+            ArrayDeque61B<byte[]> array = new ArrayDeque61B<>();
+            assertThat(mapped.equals(array)).isTrue();
+            assertThat(array.equals(mapped)).isTrue();
+            assertThat(mapped.hashCode()).isEqualTo(array.hashCode());
+
+            // Once either holds an item they differ, in both directions.
+            array.addLast(bytes("x"));
+            assertThat(mapped.equals(array)).isFalse();
+            assertThat(array.equals(mapped)).isFalse();
+            mapped.addLast(bytes("x"));
+            array.removeFirst();
+            assertThat(mapped.equals(array)).isFalse();
+            assertThat(array.equals(mapped)).isFalse();
+        } finally {
+            Files.deleteIfExists(p);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 import org.junit.jupiter.api.*;
 
 import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import deque.MaxArrayDeque61B;
 
 import static com.google.common.truth.Truth.assertThat;
@@ -21,4 +23,46 @@ public class MaxArrayDeque61BTest {
         mad.addFirst("fury road");
         assertThat(mad.max()).isEqualTo("fury road");
     }
+
+    @Test
+    public void slidingWindowTest() {
+        MaxArrayDeque61B<Integer> mad = new MaxArrayDeque61B<>(Integer::compare);
+        int[] values = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8, 9, 7, 9};
+        int window = 3;
+        for (int i = 0; i < values.length; i++) {
+            mad.addLast(values[i]);
+            if (mad.size() > window) {
+                mad.removeFirst();
+            }
+            int expected = Integer.MIN_VALUE;
+            for (int j = Math.max(0, i - window + 1); j <= i; j++) {
+                expected = Math.max(expected, values[j]);
+            }
+            assertThat(mad.max()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void randomizedMaxTest() {
+        Random random = new Random(61);
+        MaxArrayDeque61B<Integer> mad = new MaxArrayDeque61B<>(Integer::compare);
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(7);
+            int x = random.nextInt(50);
+            if (op == 5) {
+                mad.addAllLast(List.of(x, random.nextInt(50), random.nextInt(50)));
+            } else if (op == 6) {
+                mad.addAllLast(new Integer[]{x, random.nextInt(50)});
+            } else if (op == 0) {
+                mad.addFirst(x);
+            } else if (op == 1 || op == 2) {
+                mad.addLast(x);
+            } else if (op == 3) {
+                mad.removeFirst();
+            } else {
+                mad.removeLast();
+            }
+            assertThat(mad.max()).isEqualTo(mad.max(Comparator.naturalOrder()));
+        }
+    }
 }
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+
+import deque.SpscRingBuffer61B;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SpscRingBuffer61BTest {
+
+    @Test
+    public void offerPollTest() {
+        SpscRingBuffer61B<Integer> ring = new SpscRingBuffer61B<>(3);
+        assertThat(ring.capacity()).isEqualTo(4);
+        assertThat(ring.poll()).isNull();
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+        assertThat(ring.offer(4)).isFalse();
+        assertThrows(IllegalStateException.class, () -> ring.addLast(4));
+        assertThat(ring.toList()).containsExactly(0, 1, 2, 3).inOrder();
+        assertThat(ring.poll()).isEqualTo(0);
+        assertThat(ring.offer(4)).isTrue();
+        assertThat(ring.get(3)).isEqualTo(4);
+        assertThat(ring.size()).isEqualTo(4);
+        assertThrows(UnsupportedOperationException.class, ring::removeLast);
+    }
+
+    @Test
+    public void producerConsumerTest() throws InterruptedException {
+        SpscRingBuffer61B<Integer> ring = new SpscRingBuffer61B<>(64);
+        int n = 1_000_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < n; i++) {
+                while (!ring.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        int expected = 0;
+        boolean inOrder = true;
+        while (expected < n) {
+            Integer x = ring.poll();
+            if (x == null) {
+                Thread.yield();
+                continue;
+            }
+            inOrder &= x == expected;
+            expected++;
+        }
+        producer.join();
+        assertThat(inOrder).isTrue();
+        assertThat(ring.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,216 @@
+import gh2.GuitarPlayer;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/** Tests offline rendering in GuitarPlayer. */
+public class TestGuitarPlayer {
+
+    /* One A440 note for a beat at 60 bpm, then silence until beat 2. */
+    private static Sequence oneNote() throws InvalidMidiDataException {
+        Sequence sequence = new Sequence(Sequence.PPQ, 480);
+        Track track = sequence.createTrack();
+        byte[] tempo = {0x0F, 0x42, 0x40};  // 1,000,000 us per beat
+        track.add(new MidiEvent(new MetaMessage(0x51, tempo, 3), 0));
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 69, 127), 0));
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 69, 0), 480));
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 60, 0), 960));
+        return sequence;
+    }
+
+    @Test
+    public void testRenderToWav() throws Exception {
+        Path wav = Files.createTempFile("guitar", ".wav");
+        try {
+            new GuitarPlayer(oneNote()).renderToWav(wav);
+
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(wav)).order(ByteOrder.LITTLE_ENDIAN);
+            int samples = 2 * 44100;
+            assertThat(bytes.capacity()).isEqualTo(44 + 2 * samples);
+            assertThat(bytes.getInt(4)).isEqualTo(36 + 2 * samples);
+            assertThat(bytes.getShort(20)).isEqualTo((short) 1);
+            assertThat(bytes.getInt(24)).isEqualTo(44100);
+            assertThat(bytes.getShort(34)).isEqualTo((short) 16);
+            assertThat(bytes.getInt(40)).isEqualTo(2 * samples);
+
+            // Sound while the note is held, silence once it is released.
+            boolean sounded = false;
+            for (int i = 0; i < 44100; i += 1) {
+                sounded |= bytes.getShort(44 + 2 * i) != 0;
+            }
+            assertThat(sounded).isTrue();
+            for (int i = 44100; i < samples; i += 1) {
+                assertThat(bytes.getShort(44 + 2 * i)).isEqualTo((short) 0);
+            }
+        } finally {
+            Files.delete(wav);
+        }
+    }
+
+    @Test
+    public void testRenderTwiceGivesSameLength() throws Exception {
+        Path wav = Files.createTempFile("guitar", ".wav");
+        try {
+            GuitarPlayer player = new GuitarPlayer(oneNote());
+            player.renderToWav(wav);
+            long first = Files.size(wav);
+            player.renderToWav(wav);
+            assertThat(Files.size(wav)).isEqualTo(first);
+        } finally {
+            Files.delete(wav);
+        }
+    }
+
+    /* 40 notes at once, enough for the parallel mixer to split them. */
+    private static Sequence chord() throws InvalidMidiDataException {
+        Sequence sequence = new Sequence(Sequence.PPQ, 480);
+        Track track = sequence.createTrack();
+        byte[] tempo = {0x0F, 0x42, 0x40};
+        track.add(new MidiEvent(new MetaMessage(0x51, tempo, 3), 0));
+        for (int note = 40; note < 80; note += 1) {
+            track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, note, 20), 0));
+            track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, note, 0), 480));
+        }
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 60, 0), 960));
+        return sequence;
+    }
+
+    @Test
+    public void testParallelMixChord() throws Exception {
+        Path wav = Files.createTempFile("guitar", ".wav");
+        try {
+            GuitarPlayer player = new GuitarPlayer(chord());
+            player.setThreads(4);
+            player.renderToWav(wav);
+
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(wav)).order(ByteOrder.LITTLE_ENDIAN);
+            assertThat(bytes.capacity()).isEqualTo(44 + 2 * 2 * 44100);
+            int loud = 0;
+            for (int i = 0; i < 44100; i += 1) {
+                loud += bytes.getShort(44 + 2 * i) != 0 ? 1 : 0;
+            }
+            assertThat(loud).isGreaterThan(44100 / 2);
+            for (int i = 44100; i < 2 * 44100; i += 1) {
+                assertThat(bytes.getShort(44 + 2 * i)).isEqualTo((short) 0);
+            }
+        } finally {
+            Files.delete(wav);
+        }
+    }
+
+    @Test
+    public void testDecayedVoicesSleep() throws Exception {
+        // A high note held for 20 s decays to silence long before its note off.
+        Sequence sequence = new Sequence(Sequence.PPQ, 480);
+        Track track = sequence.createTrack();
+        byte[] tempo = {0x0F, 0x42, 0x40};
+        track.add(new MidiEvent(new MetaMessage(0x51, tempo, 3), 0));
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 100, 127), 0));
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 100, 0), 20 * 480));
+
+        Path wav = Files.createTempFile("guitar", ".wav");
+        try {
+            GuitarPlayer player = new GuitarPlayer(sequence);
+            player.setThreads(1);
+            player.renderToWav(wav);
+            assertThat(player.voicesSlept()).isEqualTo(1L);
+            assertThat(player.peakActiveVoices()).isEqualTo(1);
+            assertThat(player.averageActiveVoices()).isLessThan(0.5);
+
+            player.setSilenceThreshold(0.0);
+            player.renderToWav(wav);
+            assertThat(player.voicesSlept()).isEqualTo(0L);
+        } finally {
+            Files.delete(wav);
+        }
+    }
+
+    @Test
+    public void testSeededParallelMatchesSerial() throws Exception {
+        Path serialWav = Files.createTempFile("guitar", ".wav");
+        Path parallelWav = Files.createTempFile("guitar", ".wav");
+        try {
+            GuitarPlayer player = new GuitarPlayer(chord());
+            player.setSeed(61);
+            player.setThreads(1);
+            player.renderToWav(serialWav);
+            player.setThreads(4);
+            player.renderToWav(parallelWav);
+
+            // Same notes and noise; only the order of the sums differs, so
+            // samples may differ by at most one 16-bit step.
+            byte[] serial = Files.readAllBytes(serialWav);
+            byte[] parallel = Files.readAllBytes(parallelWav);
+            assertThat(parallel.length).isEqualTo(serial.length);
+            ByteBuffer s = ByteBuffer.wrap(serial).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer p = ByteBuffer.wrap(parallel).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 44; i < serial.length; i += 2) {
+                assertThat(Math.abs(s.getShort(i) - p.getShort(i))).isAtMost(1);
+            }
+        } finally {
+            Files.delete(serialWav);
+            Files.delete(parallelWav);
+        }
+    }
+
+    /* Renders SEQUENCE and returns the number of samples in the WAV file. */
+    private static long renderedSamples(Sequence sequence) throws Exception {
+        Path wav = Files.createTempFile("guitar", ".wav");
+        try {
+            new GuitarPlayer(sequence).renderToWav(wav);
+            return (Files.size(wav) - 44) / 2;
+        } finally {
+            Files.delete(wav);
+        }
+    }
+
+    @Test
+    public void testTempoChangeAppliesFromItsTick() throws Exception {
+        // One beat at 60 bpm, then one beat at 120 bpm: 1.5 s.
+        Sequence sequence = new Sequence(Sequence.PPQ, 480);
+        Track track = sequence.createTrack();
+        track.add(new MidiEvent(new MetaMessage(0x51, new byte[]{0x0F, 0x42, 0x40}, 3), 0));
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 69, 127), 0));
+        track.add(new MidiEvent(new MetaMessage(0x51, new byte[]{0x07, (byte) 0xA1, 0x20}, 3), 480));
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 69, 0), 960));
+        assertThat(renderedSamples(sequence)).isEqualTo(44100L * 3 / 2);
+    }
+
+    @Test
+    public void testShortGapsDoNotDrift() throws Exception {
+        // Default 120 bpm at 480 ticks per beat is 45.9375 samples per tick.
+        // An event every tick for two beats must still add up to exactly 1 s.
+        Sequence sequence = new Sequence(Sequence.PPQ, 480);
+        Track track = sequence.createTrack();
+        for (int tick = 0; tick <= 960; tick += 1) {
+            int command = tick % 2 == 0 ? ShortMessage.NOTE_ON : ShortMessage.NOTE_OFF;
+            track.add(new MidiEvent(new ShortMessage(command, 0, 60, 64), tick));
+        }
+        assertThat(renderedSamples(sequence)).isEqualTo(44100L);
+    }
+
+    @Test
+    public void testSmpteTimingDoesNotDrift() throws Exception {
+        // 25 frames per second at 40 ticks per frame: 1000 ticks per second.
+        // The last event at 1000 s must land on exactly 44,100,000 samples.
+        // A note-off at every second keeps no voice sounding, so this renders fast.
+        Sequence sequence = new Sequence(Sequence.SMPTE_25, 40);
+        Track track = sequence.createTrack();
+        for (int second = 0; second < 1000; second += 1) {
+            track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 60, 0), second * 1000L));
+        }
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 60, 0), 1_000_000L));
+        assertThat(renderedSamples(sequence)).isEqualTo(44_100_000L);
+    }
+}
@@ -4,6 +4,8 @@ import edu.princeton.cs.algs4.StdAudio;
 import org.junit.jupiter.api.Test;
 import gh2.GuitarString;
 
+import java.util.Arrays;
+
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
 
@@ -81,5 +83,100 @@ public class TestGuitarString  {
         String errorMsg = "Wrong tic value. Try running the testTic method in TestGuitarString.java";
         assertWithMessage(errorMsg).that(s5).isWithin(0.001).of(expected);
     }
-}
 
+    @Test
+    public void testRenderFollowsKarplusStrong() {
+        // 100 Hz is a 441-sample ring. The first 441 rendered samples are the
+        // plucked noise; every later one must be 0.996 * 0.5 * (s[t] + s[t+1]).
+        int p = 441;
+        GuitarString s = new GuitarString(100);
+        s.pluck();
+        double[] out = new double[5 * p];
+        // Odd-sized pieces, so blocks start and stop at different points around the wrap.
+        int done = 0;
+        for (int n : new int[]{1, 440, 2, 500, 7}) {
+            s.render(out, done, n);
+            done += n;
+        }
+        while (done < out.length) {
+            out[done] = s.sample();
+            s.tic();
+            done += 1;
+        }
+        for (int t = 0; t + p < out.length; t += 1) {
+            assertWithMessage("sample " + (t + p)).that(out[t + p])
+                    .isEqualTo(0.996 * (out[t] + out[t + 1]) * 0.5);
+        }
+    }
+
+    @Test
+    public void testMixIntoAddsScaledSamples() {
+        GuitarString s = new GuitarString(11025);
+        s.pluck();
+        double[] out = new double[12];
+        Arrays.fill(out, 1.0);
+        s.mixInto(out, 2, 10, 2.0);
+        assertThat(out[0]).isEqualTo(1.0);
+        assertThat(out[1]).isEqualTo(1.0);
+        for (int t = 2; t + 4 < out.length; t += 1) {
+            double expected = 0.996 * ((out[t] - 1.0) / 2.0 + (out[t + 1] - 1.0) / 2.0) * 0.5;
+            assertThat((out[t + 4] - 1.0) / 2.0).isWithin(1e-12).of(expected);
+        }
+    }
+
+    @Test
+    public void testEnergyAndSilence() {
+        GuitarString s = new GuitarString(2637);
+        assertThat(s.energy()).isEqualTo(0.0);
+        assertThat(s.isSilent(1e-10)).isTrue();
+
+        // Uniform noise on [-0.5, 0.5] has a mean square of 1/12.
+        s.pluck();
+        assertThat(s.energy()).isWithin(0.06).of(1.0 / 12);
+        assertThat(s.isSilent(1e-10)).isFalse();
+
+        double[] out = new double[44100];
+        s.render(out, 0, out.length);
+        assertThat(s.energy()).isLessThan(1.0 / 12);
+        int seconds = 1;
+        while (!s.isSilent(1e-10)) {
+            s.render(out, 0, out.length);
+            seconds += 1;
+        }
+        assertWithMessage("a high string should go quiet within seconds").that(seconds).isLessThan(10);
+        assertThat(s.isSilent(0.0)).isFalse();
+    }
+
+    @Test
+    public void testSeededPlucksRepeat() {
+        GuitarString a = new GuitarString(100, 42);
+        GuitarString b = new GuitarString(100, 42);
+        GuitarString c = new GuitarString(100, 43);
+        double[] outA = new double[2000];
+        double[] outB = new double[2000];
+        double[] outC = new double[2000];
+        for (int pluck = 0; pluck < 3; pluck += 1) {
+            a.pluck();
+            b.pluck();
+            c.pluck();
+            a.render(outA, 0, outA.length);
+            b.render(outB, 0, outB.length);
+            c.render(outC, 0, outC.length);
+            assertThat(Arrays.equals(outA, outB)).isTrue();
+            assertThat(Arrays.equals(outA, outC)).isFalse();
+        }
+    }
+
+    @Test
+    public void testPluckNoiseRange() {
+        // Longer than the shared noise table, so the pluck wraps around it.
+        GuitarString s = new GuitarString(0.5, 7);
+        s.pluck();
+        double[] out = new double[88200];
+        s.render(out, 0, out.length);
+        for (double x : out) {
+            assertThat(x >= -0.5 && x < 0.5).isTrue();
+        }
+        assertThat(s.energy()).isWithin(0.01).of(1.0 / 12);
+    }
+}
@@ -0,0 +1,65 @@
+import gh2.GuitarString;
+import gh2.RealtimeSynth;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Tests RealtimeSynth against a fake sound card that takes a block's duration to play it. */
+public class TestRealtimeSynth {
+
+    @Test
+    public void testPluckIsHeardWithLatency() {
+        long blockNanos = 1_000_000_000L * 256 / 44100;
+        AtomicLong loudBlocks = new AtomicLong();
+        RealtimeSynth synth = new RealtimeSynth(new GuitarString[]{new GuitarString(440)}, 256, 2, block -> {
+            for (double x : block) {
+                if (x != 0) {
+                    loudBlocks.incrementAndGet();
+                    break;
+                }
+            }
+            LockSupport.parkNanos(blockNanos);
+        });
+        synth.start();
+        // The audio threads may be slow to get going on a loaded machine, so
+        // wait for progress instead of sleeping a fixed time.
+        assertThat(await(() -> synth.blocksPlayed() >= 4)).isTrue();
+        assertThat(loudBlocks.get()).isEqualTo(0L);
+
+        long pluckedAt = System.nanoTime();
+        synth.pluck(0);
+        assertThat(await(() -> loudBlocks.get() > 0)).isTrue();
+        double waitedMillis = (System.nanoTime() - pluckedAt) / 1e6;
+        synth.close();
+
+        // Latency is recorded before the block is handed to the output, so it
+        // can be no longer than the wait for the first loud block.
+        assertThat(synth.lastLatencyMillis()).isGreaterThan(0.0);
+        assertThat(synth.maxLatencyMillis()).isAtMost(waitedMillis);
+        assertThat(synth.meanLatencyMillis()).isEqualTo(synth.lastLatencyMillis());
+    }
+
+    /* Polls CONDITION until it holds or 5 seconds pass; returns whether it held. */
+    private static boolean await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    @Test
+    public void testRejectsUnknownString() {
+        RealtimeSynth synth = new RealtimeSynth(new GuitarString[]{new GuitarString(440)}, 256, 2, block -> { });
+        assertThrows(IndexOutOfBoundsException.class, () -> synth.pluck(1));
+    }
+}
@@ -0,0 +1,148 @@
+import gh2.SynthEngine;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Tests voice allocation in SynthEngine. */
+public class TestSynthEngine {
+
+    private static boolean isSilent(double[] block) {
+        for (double x : block) {
+            if (x != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testSameNoteTwiceUsesTwoVoices() {
+        SynthEngine engine = new SynthEngine(4, 1);
+        engine.noteOn(69, 1.0);
+        engine.noteOn(69, 1.0);
+        assertThat(engine.activeVoices()).isEqualTo(2);
+
+        engine.noteOff(69);
+        assertThat(engine.activeVoices()).isEqualTo(1);
+        engine.noteOff(69);
+        assertThat(engine.activeVoices()).isEqualTo(0);
+        engine.noteOff(69);
+        assertThat(engine.activeVoices()).isEqualTo(0);
+
+        double[] block = new double[256];
+        engine.render(block, 0, block.length);
+        assertThat(isSilent(block)).isTrue();
+    }
+
+    @Test
+    public void testZeroVelocityIsNoteOff() {
+        SynthEngine engine = new SynthEngine(4, 1);
+        engine.noteOn(60, 0.5);
+        engine.noteOn(60, 0.0);
+        assertThat(engine.activeVoices()).isEqualTo(0);
+    }
+
+    @Test
+    public void testFullPoolStealsQuietestVoice() {
+        SynthEngine engine = new SynthEngine(2, 1);
+        engine.noteOn(60, 1.0);
+        engine.noteOn(62, 0.01);
+        engine.noteOn(64, 1.0);
+        assertThat(engine.activeVoices()).isEqualTo(2);
+        assertThat(engine.voicesStolen()).isEqualTo(1L);
+
+        // 62 was stolen, so releasing it changes nothing; 60 and 64 still sound.
+        engine.noteOff(62);
+        assertThat(engine.activeVoices()).isEqualTo(2);
+        engine.noteOff(60);
+        engine.noteOff(64);
+        assertThat(engine.activeVoices()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStolenVoiceIsRetuned() {
+        // One voice, so note 100 (2637 Hz, a 17-sample ring) must reuse the
+        // voice built for note 20 and follow Karplus-Strong at its own period.
+        SynthEngine engine = new SynthEngine(1, 1);
+        double[] out = new double[512];
+        engine.noteOn(20, 1.0);
+        engine.render(out, 0, out.length);
+        engine.noteOn(100, 1.0);
+        engine.render(out, 0, out.length);
+        assertThat(engine.voicesStolen()).isEqualTo(1L);
+        assertThat(isSilent(out)).isFalse();
+
+        int p = 17;
+        for (int t = 0; t + p < out.length; t += 1) {
+            assertThat(out[t + p]).isEqualTo(0.996 * (out[t] + out[t + 1]) * 0.5);
+        }
+    }
+
+    @Test
+    public void testRenderDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        SynthEngine engine = new SynthEngine(8, 1);
+        double[] block = new double[512];
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getThreadAllocatedBytes(id);
+            for (int i = 0; i < 2000; i++) {
+                int note = 21 + (i * 7) % 88;
+                engine.noteOn(note, 0.8);
+                engine.render(block, 0, block.length);
+                engine.noteOff(21 + (i * 5) % 88);  // usually misses, so the pool fills
+            }
+            long allocated = threads.getThreadAllocatedBytes(id) - before;
+            if (round == 1) {
+                assertThat(allocated).isLessThan(1024L);
+            }
+        }
+        assertThat(engine.voicesStolen()).isGreaterThan(0L);
+    }
+
+    @Test
+    public void testParallelRenderDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        SynthEngine engine = new SynthEngine(64, 1);
+        engine.setThreads(4);
+        engine.setSilenceThreshold(0);
+        try {
+            // 40 voices, so every block is split into 5 groups.
+            for (int i = 0; i < 40; i++) {
+                engine.noteOn(40 + i, 0.5);
+            }
+            double[] block = new double[SynthEngine.MAX_BLOCK_SIZE];
+            for (int round = 0; round < 2; round++) {
+                // Counts the caller and every pool worker started so far.
+                long[] ids = threads.getAllThreadIds();
+                long before = 0;
+                for (long id : ids) {
+                    before += Math.max(0, threads.getThreadAllocatedBytes(id));
+                }
+                for (int i = 0; i < 500; i++) {
+                    engine.render(block, 0, block.length);
+                }
+                long after = 0;
+                for (long id : ids) {
+                    after += Math.max(0, threads.getThreadAllocatedBytes(id));
+                }
+                if (round == 1) {
+                    assertThat(after - before).isLessThan(1024L);
+                }
+            }
+            assertThat(engine.activeVoices()).isEqualTo(40);
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test
+    public void testRejectsEmptyPool() {
+        assertThrows(IllegalArgumentException.class, () -> new SynthEngine(0, 1));
+    }
+}
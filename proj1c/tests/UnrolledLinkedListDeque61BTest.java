@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import deque.UnrolledLinkedListDeque61B;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class UnrolledLinkedListDeque61BTest {
+
+    @Test
+    public void basicTest() {
+        UnrolledLinkedListDeque61B<Integer> ulld = new UnrolledLinkedListDeque61B<>(4, 1);
+        assertThat(ulld.removeFirst()).isNull();
+        for (int i = 0; i < 10; i++) {
+            ulld.addLast(i);
+            ulld.addFirst(-i - 1);
+        }
+        assertThat(ulld.size()).isEqualTo(20);
+        assertThat(ulld.get(0)).isEqualTo(-10);
+        assertThat(ulld.get(19)).isEqualTo(9);
+        assertThat(ulld.getRecursive(12)).isEqualTo(2);
+        assertThat(List.of(ulld.toArray())).containsExactlyElementsIn(ulld.toList()).inOrder();
+    }
+
+    @Test
+    public void randomizedAgainstArrayDequeTest() {
+        Random random = new Random(61);
+        UnrolledLinkedListDeque61B<Integer> ulld = new UnrolledLinkedListDeque61B<>(8, 2);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        for (int i = 0; i < 50000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0) {
+                ulld.addFirst(i);
+                expected.addFirst(i);
+            } else if (op == 1) {
+                ulld.addLast(i);
+                expected.addLast(i);
+            } else if (op == 2) {
+                assertThat(ulld.removeFirst()).isEqualTo(expected.pollFirst());
+            } else {
+                assertThat(ulld.removeLast()).isEqualTo(expected.pollLast());
+            }
+            assertThat(ulld.size()).isEqualTo(expected.size());
+        }
+        assertThat(ulld.toList()).containsExactlyElementsIn(new ArrayList<>(expected)).inOrder();
+        int i = 0;
+        for (int x : expected) {
+            assertThat(ulld.getRecursive(i)).isEqualTo(x);
+            assertThat(ulld.get(i++)).isEqualTo(x);
+        }
+    }
+
+    @Test
+    public void getMillionElementsTest() {
+        int n = 1_000_000;
+        for (int chunkSize : new int[]{64, 8, 2}) {
+            UnrolledLinkedListDeque61B<Integer> ulld = new UnrolledLinkedListDeque61B<>(chunkSize, 2);
+            for (int i = 0; i < n; i++) {
+                ulld.addLast(i);
+            }
+            int[] indices = {0, 1, n / 2 - 1, n / 2, n / 2 + 1, 3 * n / 4, n - 2, n - 1};
+            for (int i : indices) {
+                assertThat(ulld.get(i)).isEqualTo(i);
+                assertThat(ulld.getRecursive(i)).isEqualTo(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import deque.ArrayDeque61B;
+
+/** Times addLast/removeFirst churn on ArrayDeque61B, whose indices wrap with a
+ *  bitmask, against a copy of the previous modulo-indexed version.
+ *  Both use the same resize/checkDownsize policy, so the difference is the
+ *  cost of the integer division alone.
+ */
+public class ArrayDequeChurnSpeedTest {
+    private static final int OPS = 20_000_000;
+    private static final int[] QUEUE_SIZES = {10, 1_000, 100_000, 1_000_000};
+    private static final int ROUNDS = 3;
+
+    /**
+     * Runs the churn workload at each queue size. Every round keeps the
+     * queue at a fixed length and then empties it, so each size also goes
+     * through the full resize up and checkDownsize back down. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        System.out.printf("%d addLast/removeFirst pairs per run, best of %d%n%n", OPS, ROUNDS);
+        System.out.printf("%10s %14s %14s %8s%n", "queue size", "mask (sec)", "modulo (sec)", "speedup");
+        for (int n : QUEUE_SIZES) {
+            double mask = Double.MAX_VALUE;
+            double modulo = Double.MAX_VALUE;
+            for (int r = 0; r < ROUNDS; r++) {
+                mask = Math.min(mask, timeMask(n));
+                modulo = Math.min(modulo, timeModulo(n));
+            }
+            System.out.printf("%10d %14.3f %14.3f %7.2fx%n", n, mask, modulo, modulo / mask);
+        }
+    }
+
+    private static double timeMask(int n) {
+        ArrayDeque61B<Integer> deque = new ArrayDeque61B<>();
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < n; i++) {
+            deque.addLast(i);
+        }
+        long sink = 0;
+        for (int i = 0; i < OPS; i++) {
+            deque.addLast(i);
+            sink += deque.removeFirst();
+        }
+        while (!deque.isEmpty()) {
+            sink += deque.removeFirst();
+        }
+        double time = sw.elapsedTime();
+        consume(sink);
+        return time;
+    }
+
+    private static double timeModulo(int n) {
+        ModuloArrayDeque deque = new ModuloArrayDeque();
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < n; i++) {
+            deque.addLast(i);
+        }
+        long sink = 0;
+        for (int i = 0; i < OPS; i++) {
+            deque.addLast(i);
+            sink += deque.removeFirst();
+        }
+        while (!deque.isEmpty()) {
+            sink += deque.removeFirst();
+        }
+        double time = sw.elapsedTime();
+        consume(sink);
+        return time;
+    }
+
+    /* Keeps the JIT from discarding the loops. */
+    private static void consume(long sink) {
+        if (sink == 42) {
+            System.out.print("");
+        }
+    }
+
+    /* ------------------------------- Private classes ------------------------------- */
+
+    /** ArrayDeque61B's addLast/removeFirst path as it was before the bitmask change. */
+    private static class ModuloArrayDeque {
+        private Object[] items = new Object[8];
+        private int size = 0;
+        private int nextFirst = 0;
+        private int nextLast = 1;
+
+        private int minusOne(int index) {
+            return (index - 1 + items.length) % items.length;
+        }
+
+        private int plusOne(int index) {
+            return (index + 1) % items.length;
+        }
+
+        private void resize(int capacity) {
+            Object[] newItems = new Object[capacity];
+            int oldIndex = plusOne(nextFirst);
+            for (int newIndex = 0; newIndex < size; newIndex++) {
+                newItems[newIndex] = items[oldIndex];
+                oldIndex = plusOne(oldIndex);
+            }
+            items = newItems;
+            nextFirst = capacity - 1;
+            nextLast = size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void addLast(Integer x) {
+            if (size == items.length) {
+                resize(items.length * 2);
+            }
+            items[nextLast] = x;
+            nextLast = plusOne(nextLast);
+            size++;
+        }
+
+        Integer removeFirst() {
+            if (isEmpty()) {
+                return null;
+            }
+            int firstIndex = plusOne(nextFirst);
+            Integer item = (Integer) items[firstIndex];
+            items[firstIndex] = null;
+            nextFirst = firstIndex;
+            size--;
+            if (items.length >= 16 && (double) size / items.length < 0.25) {
+                resize(items.length / 2);
+            }
+            return item;
+        }
+    }
+}
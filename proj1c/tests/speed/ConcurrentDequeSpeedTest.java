@@ -0,0 +1,118 @@
+package speed;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import deque.ArrayDeque61B;
+import deque.ConcurrentLinkedDeque61B;
+import deque.Deque61B;
+
+/** Measures producer/consumer throughput of ConcurrentLinkedDeque61B against
+ *  an ArrayDeque61B guarded by one global lock, at 1 to 32 threads.
+ *  Half of the threads add at the back. The other half remove from the front.
+ */
+public class ConcurrentDequeSpeedTest {
+    private static final int OPS_PER_THREAD = 2_000_000;
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+
+    /**
+     * Prints throughput in millions of operations per second for each
+     * thread count. ARGS is unused.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d operations per thread%n%n", OPS_PER_THREAD);
+        System.out.printf("%8s %18s %18s%n", "threads", "lock-free (Mop/s)", "synchronized (Mop/s)");
+        for (int threads : THREADS) {
+            double lockFree = throughput(new ConcurrentLinkedDeque61B<>(), threads);
+            double locked = throughput(new SynchronizedDeque<>(new ArrayDeque61B<>()), threads);
+            System.out.printf("%8d %18.2f %18.2f%n", threads, lockFree, locked);
+        }
+    }
+
+    /**
+     * Runs THREADS workers against DEQUE and returns millions of operations
+     * per second. With a single thread, that thread alternates add and remove.
+     */
+    private static double throughput(Deque61B<Integer> deque, int threads) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            boolean producer = t % 2 == 0;
+            boolean both = threads == 1;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    if (both ? i % 2 == 0 : producer) {
+                        deque.addLast(i);
+                    } else {
+                        deque.removeFirst();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return (double) OPS_PER_THREAD * threads / seconds / 1e6;
+    }
+
+    /* ------------------------------- Private classes ------------------------------- */
+
+    /** Guards every call to the wrapped deque with one lock. */
+    private static class SynchronizedDeque<T> implements Deque61B<T> {
+        private final Deque61B<T> deque;
+
+        SynchronizedDeque(Deque61B<T> deque) {
+            this.deque = deque;
+        }
+
+        public synchronized void addFirst(T x) {
+            deque.addFirst(x);
+        }
+
+        public synchronized void addLast(T x) {
+            deque.addLast(x);
+        }
+
+        public synchronized List<T> toList() {
+            return deque.toList();
+        }
+
+        public synchronized boolean isEmpty() {
+            return deque.isEmpty();
+        }
+
+        public synchronized int size() {
+            return deque.size();
+        }
+
+        public synchronized T removeFirst() {
+            return deque.removeFirst();
+        }
+
+        public synchronized T removeLast() {
+            return deque.removeLast();
+        }
+
+        public synchronized T get(int index) {
+            return deque.get(index);
+        }
+
+        public synchronized T getRecursive(int index) {
+            return deque.getRecursive(index);
+        }
+
+        public Iterator<T> iterator() {
+            return toList().iterator();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package speed;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import deque.ArrayDeque61B;
+import deque.ConcurrentLinkedDeque61B;
+import deque.Deque61B;
+import deque.LinkedListDeque61B;
+import deque.MaxArrayDeque61B;
+import deque.SpscRingBuffer61B;
+import deque.UnrolledLinkedListDeque61B;
+
+/** Runs every Integer Deque61B implementation through the same workloads:
+ *  addFirst, addLast, removeFirst, removeLast, get, toList and equals, at
+ *  sizes from 10 to 10^7. For each combination it reports:
+ *  - throughput, in ops/sec
+ *  - bytes allocated per op, the same figure as JMH's gc.alloc.rate.norm
+ *  - p99 latency of a single op
+ *
+ *  JMH itself is not available to this tree (there is no build manifest to
+ *  add it to), so this harness does the parts of JMH that matter here:
+ *  warmup iterations, a time budget per measurement, and a sink that keeps
+ *  results alive.
+ *
+ *  Regression tracking:
+ *    --save FILE      writes the throughput of every row to FILE
+ *    --baseline FILE  compares against a saved run; any row slower than
+ *                     TOLERANCE x baseline is flagged and the exit code is 1
+ *    --budget-ms N    time budget per measurement (default 200)
+ *    --sizes a,b,...  sizes to run (default 10,1000,100000,10000000)
+ *
+ *  MappedFileDeque61B stores byte[] and lives on disk, so it has its own
+ *  MappedFileDequeSpeedTest instead. SpscRingBuffer61B cannot addFirst or
+ *  removeLast, so those rows print n/a.
+ */
+public class Deque61BSpeedTest {
+    private static final double TOLERANCE = 0.8;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int LATENCY_SAMPLES = 100_000;
+    private static final Integer[] VALUES = new Integer[1024];
+
+    private static long budgetNanos = 200_000_000L;
+    private static long sink;
+
+    private interface Workload {
+        /** Performs up to OPS operations on a deque of N items; returns how many were done. */
+        long run(Deque61B<Integer> deque, Deque61B<Integer> twin, int n, long ops, long[] latencies);
+    }
+
+    /**
+     * Runs the workload matrix. ARGS are the optional flags described above.
+     */
+    public static void main(String[] args) throws IOException {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = i;
+        }
+        Path save = null;
+        Path baseline = null;
+        int[] sizes = {10, 1_000, 100_000, 10_000_000};
+        for (int i = 0; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--save" -> save = Path.of(args[i + 1]);
+                case "--baseline" -> baseline = Path.of(args[i + 1]);
+                case "--budget-ms" -> budgetNanos = Long.parseLong(args[i + 1]) * 1_000_000L;
+                case "--sizes" -> sizes = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                default -> throw new IllegalArgumentException("unknown flag " + args[i]);
+            }
+        }
+
+        Map<String, IntFunction<Deque61B<Integer>>> impls = new LinkedHashMap<>();
+        impls.put("ArrayDeque61B", n -> new ArrayDeque61B<>());
+        impls.put("LinkedListDeque61B", n -> new LinkedListDeque61B<>());
+        impls.put("MaxArrayDeque61B", n -> new MaxArrayDeque61B<>(Integer::compare));
+        impls.put("UnrolledLinkedListDeque61B", n -> new UnrolledLinkedListDeque61B<>());
+        impls.put("ConcurrentLinkedDeque61B", n -> new ConcurrentLinkedDeque61B<>());
+        impls.put("SpscRingBuffer61B", SpscRingBuffer61B::new);
+
+        Map<String, Workload> workloads = new LinkedHashMap<>();
+        workloads.put("addFirst", Deque61BSpeedTest::addFirst);
+        workloads.put("addLast", Deque61BSpeedTest::addLast);
+        workloads.put("removeFirst", Deque61BSpeedTest::removeFirst);
+        workloads.put("removeLast", Deque61BSpeedTest::removeLast);
+        workloads.put("get", Deque61BSpeedTest::get);
+        workloads.put("toList", Deque61BSpeedTest::toList);
+        workloads.put("equals", Deque61BSpeedTest::equalsOp);
+
+        Map<String, Double> previous = baseline == null ? Map.of() : readResults(baseline);
+        List<String> results = new ArrayList<>();
+        int regressions = 0;
+
+        System.out.printf("%-28s %-12s %10s %14s %10s %10s%n", "deque", "op", "size", "ops/s", "B/op", "p99 (ns)");
+        for (Map.Entry<String, IntFunction<Deque61B<Integer>>> impl : impls.entrySet()) {
+            for (int n : sizes) {
+                for (Map.Entry<String, Workload> w : workloads.entrySet()) {
+                    String key = impl.getKey() + "," + w.getKey() + "," + n;
+                    double[] r;
+                    try {
+                        r = measure(impl.getValue(), w.getValue(), n);
+                    } catch (UnsupportedOperationException e) {
+                        System.out.printf("%-28s %-12s %10d %14s%n", impl.getKey(), w.getKey(), n, "n/a");
+                        continue;
+                    }
+                    String flag = "";
+                    Double old = previous.get(key);
+                    if (old != null && r[0] < TOLERANCE * old) {
+                        flag = String.format("  REGRESSION (baseline %.3g)", old);
+                        regressions++;
+                    }
+                    System.out.printf("%-28s %-12s %10d %14.4g %10.1f %10d%s%n",
+                            impl.getKey(), w.getKey(), n, r[0], r[1], (long) r[2], flag);
+                    results.add(key + "," + r[0]);
+                }
+            }
+        }
+
+        if (save != null) {
+            Files.write(save, results);
+        }
+        if (sink == 42) {
+            System.out.print("");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s) against " + baseline);
+            System.exit(1);
+        }
+    }
+
+    /** Returns {ops/sec, allocated bytes/op, p99 latency in ns}. */
+    private static double[] measure(IntFunction<Deque61B<Integer>> impl, Workload w, int n) {
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            timed(impl, w, Math.min(n, 10_000), null);
+        }
+
+        long[] opsNanosBytes = timed(impl, w, n, null);
+
+        long[] latencies = new long[LATENCY_SAMPLES];
+        Deque61B<Integer> deque = impl.apply(n);
+        Deque61B<Integer> twin = impl.apply(n);
+        int sampled = (int) w.run(deque, twin, n, LATENCY_SAMPLES, latencies);
+        long[] done = Arrays.copyOf(latencies, sampled);
+        Arrays.sort(done);
+        long p99 = done.length == 0 ? 0 : done[(int) Math.min(done.length - 1, Math.round(0.99 * (done.length - 1)))];
+
+        return new double[]{opsNanosBytes[0] / (opsNanosBytes[1] / 1e9), (double) opsNanosBytes[2] / opsNanosBytes[0], p99};
+    }
+
+    /**
+     * Repeats the workload on fresh deques until the time budget is used up.
+     * Returns {ops, nanos, allocated bytes}, excluding the prefill done by fill().
+     */
+    private static long[] timed(IntFunction<Deque61B<Integer>> impl, Workload w, int n, long[] latencies) {
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        while (nanos < budgetNanos) {
+            Deque61B<Integer> deque = impl.apply(n);
+            Deque61B<Integer> twin = impl.apply(n);
+            setupNanos = 0;
+            setupBytes = 0;
+            long allocBefore = allocatedBytes();
+            long begin = System.nanoTime();
+            ops += w.run(deque, twin, n, Long.MAX_VALUE, latencies);
+            nanos += System.nanoTime() - begin - setupNanos;
+            bytes += allocatedBytes() - allocBefore - setupBytes;
+        }
+        return new long[]{ops, Math.max(1, nanos), bytes};
+    }
+
+    /* Time and allocation spent prefilling inside a workload; timed() subtracts them. */
+    private static long setupNanos;
+    private static long setupBytes;
+
+    private static void fill(Deque61B<Integer> deque, int n) {
+        long allocBefore = allocatedBytes();
+        long begin = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            deque.addLast(VALUES[i & 1023]);
+        }
+        setupNanos += System.nanoTime() - begin;
+        setupBytes += allocatedBytes() - allocBefore;
+    }
+
+    /* ------------------------------- Workloads ------------------------------- */
+
+    private static long addFirst(Deque61B<Integer> d, Deque61B<Integer> twin, int n, long ops, long[] lat) {
+        int count = (int) Math.min(n, ops);
+        for (int i = 0; i < count; i++) {
+            long begin = lat == null ? 0 : System.nanoTime();
+            d.addFirst(VALUES[i & 1023]);
+            if (lat != null) {
+                lat[i] = System.nanoTime() - begin;
+            }
+        }
+        return count;
+    }
+
+    private static long addLast(Deque61B<Integer> d, Deque61B<Integer> twin, int n, long ops, long[] lat) {
+        int count = (int) Math.min(n, ops);
+        for (int i = 0; i < count; i++) {
+            long begin = lat == null ? 0 : System.nanoTime();
+            d.addLast(VALUES[i & 1023]);
+            if (lat != null) {
+                lat[i] = System.nanoTime() - begin;
+            }
+        }
+        return count;
+    }
+
+    private static long removeFirst(Deque61B<Integer> d, Deque61B<Integer> twin, int n, long ops, long[] lat) {
+        fill(d, n);
+        int count = (int) Math.min(n, ops);
+        for (int i = 0; i < count; i++) {
+            long begin = lat == null ? 0 : System.nanoTime();
+            sink += d.removeFirst();
+            if (lat != null) {
+                lat[i] = System.nanoTime() - begin;
+            }
+        }
+        return count;
+    }
+
+    private static long removeLast(Deque61B<Integer> d, Deque61B<Integer> twin, int n, long ops, long[] lat) {
+        fill(d, n);
+        int count = (int) Math.min(n, ops);
+        for (int i = 0; i < count; i++) {
+            long begin = lat == null ? 0 : System.nanoTime();
+            sink += d.removeLast();
+            if (lat != null) {
+                lat[i] = System.nanoTime() - begin;
+            }
+        }
+        return count;
+    }
+
+    /* Random-index gets, stopping early once the time budget is spent. */
+    private static long get(Deque61B<Integer> d, Deque61B<Integer> twin, int n, long ops, long[] lat) {
+        fill(d, n);
+        Random random = new Random(n);
+        long start = System.nanoTime();
+        long count = 0;
+        while (count < ops && (lat != null || System.nanoTime() - start < budgetNanos)) {
+            int index = random.nextInt(n);
+            long begin = lat == null ? 0 : System.nanoTime();
+            sink += d.get(index);
+            if (lat != null) {
+                lat[(int) count] = System.nanoTime() - begin;
+                if (System.nanoTime() - start > budgetNanos) {
+                    return count + 1;
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /* One op is one full toList() copy. */
+    private static long toList(Deque61B<Integer> d, Deque61B<Integer> twin, int n, long ops, long[] lat) {
+        fill(d, n);
+        long start = System.nanoTime();
+        long count = 0;
+        while (count < ops && System.nanoTime() - start < budgetNanos) {
+            long begin = lat == null ? 0 : System.nanoTime();
+            sink += d.toList().size();
+            if (lat != null) {
+                lat[(int) count] = System.nanoTime() - begin;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /* One op is one equals() between two deques holding the same items. */
+    private static long equalsOp(Deque61B<Integer> d, Deque61B<Integer> twin, int n, long ops, long[] lat) {
+        fill(d, n);
+        fill(twin, n);
+        long start = System.nanoTime();
+        long count = 0;
+        while (count < ops && System.nanoTime() - start < budgetNanos) {
+            long begin = lat == null ? 0 : System.nanoTime();
+            sink += d.equals(twin) ? 1 : 0;
+            if (lat != null) {
+                lat[(int) count] = System.nanoTime() - begin;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /* ------------------------------- Helpers ------------------------------- */
+
+    private static Map<String, Double> readResults(Path file) throws IOException {
+        Map<String, Double> results = new HashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            int comma = line.lastIndexOf(',');
+            results.put(line.substring(0, comma), Double.parseDouble(line.substring(comma + 1)));
+        }
+        return results;
+    }
+
+    /* HotSpot-specific: bytes this thread has allocated so far. */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
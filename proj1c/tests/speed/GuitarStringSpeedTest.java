@@ -0,0 +1,132 @@
+package speed;
+
+import java.util.Arrays;
+
+import gh2.GuitarString;
+
+/** Times pluck() at a range of frequencies, against the old loop that called
+ *  Math.random() once per buffer sample. Then times mixing all 128 MIDI-note
+ *  GuitarStrings, as GuitarPlayer does, two ways:
+ *  - per sample: tic() and sample() on every string, the old GuitarPlayer loop
+ *  - per block: one mixInto() per string per block
+ *  Output goes nowhere, so the figure is pure synthesis speed, reported as a
+ *  multiple of real time at 44.1 kHz.
+ *
+ *  Every string is re-plucked once per second of audio, as in a song. Left
+ *  alone, high strings decay into subnormal doubles within seconds, and
+ *  subnormal arithmetic is so slow it would swamp both loops.
+ */
+public class GuitarStringSpeedTest {
+    private static final int SR = 44100;
+    private static final int STRINGS = 128;
+    private static final int BLOCK_SIZE = 512;
+    private static final int SECONDS = 20;
+    private static final double[] PLUCK_FREQUENCIES = {8.18, 55, 440, 3520, 12543};
+    private static final int PLUCKS = 20_000;
+
+    /**
+     * Prints the real-time multiple of both loops. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        System.out.printf("%10s %8s %18s %18s%n", "Hz", "buffer", "pluck() ns", "Math.random ns");
+        for (int round = 0; round < 2; round++) {
+            for (double hz : PLUCK_FREQUENCIES) {
+                double table = nanosPerPluck(hz, false);
+                double random = nanosPerPluck(hz, true);
+                if (round == 1) {
+                    System.out.printf("%10.2f %8d %18.0f %18.0f%n", hz, Math.round(SR / hz), table, random);
+                }
+            }
+        }
+        System.out.println();
+
+        // Warm up both paths so the JIT has compiled (and vectorized) the loops.
+        perSample(2);
+        perBlock(2);
+
+        double sample = perSample(SECONDS);
+        double block = perBlock(SECONDS);
+        System.out.printf("%-12s %14s%n", "loop", "x real time");
+        System.out.printf("%-12s %13.1fx%n", "per sample", sample);
+        System.out.printf("%-12s %13.1fx%n", "per block", block);
+        System.out.printf("speedup %.1fx%n", block / sample);
+    }
+
+    /* The old pluck filled the buffer with one Math.random() call per sample. */
+    private static double nanosPerPluck(double hz, boolean mathRandom) {
+        GuitarString s = new GuitarString(hz);
+        double[] buffer = new double[(int) Math.round(SR / hz)];
+        long begin = System.nanoTime();
+        for (int i = 0; i < PLUCKS; i++) {
+            if (mathRandom) {
+                for (int j = 0; j < buffer.length; j++) {
+                    buffer[j] = Math.random() - 0.5;
+                }
+            } else {
+                s.pluck();
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (buffer[0] + s.sample() == 42) {
+            System.out.print("");
+        }
+        return (double) elapsed / PLUCKS;
+    }
+
+    private static GuitarString[] strings() {
+        GuitarString[] strings = new GuitarString[STRINGS];
+        for (int i = 0; i < STRINGS; i++) {
+            strings[i] = new GuitarString(440.0 * Math.pow(2.0, (i - 69.0) / 12.0));
+        }
+        return strings;
+    }
+
+    private static void pluck(GuitarString[] strings) {
+        for (GuitarString s : strings) {
+            s.pluck();
+        }
+    }
+
+    private static double perSample(int seconds) {
+        GuitarString[] strings = strings();
+        double sink = 0;
+        long begin = System.nanoTime();
+        for (int t = 0; t < seconds * SR; t++) {
+            if (t % SR == 0) {
+                pluck(strings);
+            }
+            double sum = 0;
+            for (GuitarString s : strings) {
+                s.tic();
+                sum += 0.5 * s.sample();
+            }
+            sink += sum;
+        }
+        return realTime(seconds, System.nanoTime() - begin, sink);
+    }
+
+    private static double perBlock(int seconds) {
+        GuitarString[] strings = strings();
+        double[] block = new double[BLOCK_SIZE];
+        double sink = 0;
+        long begin = System.nanoTime();
+        for (int t = 0; t < seconds * SR; t += BLOCK_SIZE) {
+            if (t % SR < BLOCK_SIZE) {
+                pluck(strings);
+            }
+            Arrays.fill(block, 0.0);
+            for (GuitarString s : strings) {
+                s.mixInto(block, 0, BLOCK_SIZE, 0.5);
+            }
+            sink += block[0];
+        }
+        return realTime(seconds, System.nanoTime() - begin, sink);
+    }
+
+    private static double realTime(int seconds, long elapsed, double sink) {
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return seconds / (elapsed / 1e9);
+    }
+}
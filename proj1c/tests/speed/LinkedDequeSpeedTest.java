@@ -0,0 +1,91 @@
+package speed;
+
+import java.lang.management.ManagementFactory;
+
+import deque.Deque61B;
+import deque.LinkedListDeque61B;
+import deque.UnrolledLinkedListDeque61B;
+
+/** Compares LinkedListDeque61B with UnrolledLinkedListDeque61B on retained
+ *  memory per element, queue churn throughput and bytes allocated per
+ *  operation. The same preallocated Integers are stored in both, so the
+ *  memory figures are the deque's own overhead only.
+ */
+public class LinkedDequeSpeedTest {
+    private static final int N = 1_000_000;
+    private static final int CHURN_OPS = 20_000_000;
+    private static final Integer[] VALUES = new Integer[N];
+
+    /** Prints one row per implementation. ARGS is unused. */
+    public static void main(String[] args) {
+        for (int i = 0; i < N; i++) {
+            VALUES[i] = i;
+        }
+        // Warm up the JIT on both implementations.
+        churn(new LinkedListDeque61B<>());
+        churn(new UnrolledLinkedListDeque61B<>());
+
+        System.out.printf("%d elements retained, %d addLast/removeFirst pairs of churn%n%n", N, CHURN_OPS);
+        System.out.printf("%-30s %14s %14s %16s%n", "deque", "bytes/element", "churn Mops/s", "alloc bytes/op");
+        report("LinkedListDeque61B", new LinkedListDeque61B<>());
+        report("UnrolledLinkedListDeque61B", new UnrolledLinkedListDeque61B<>());
+    }
+
+    private static void report(String name, Deque61B<Integer> deque) {
+        double bytesPerElement = retainedBytesPerElement(deque);
+        long allocBefore = allocatedBytes();
+        double seconds = churn(deque);
+        long allocated = allocatedBytes() - allocBefore;
+        System.out.printf("%-30s %14.1f %14.2f %16.2f%n", name, bytesPerElement,
+                2.0 * CHURN_OPS / seconds / 1e6, (double) allocated / (2.0 * CHURN_OPS));
+    }
+
+    /* Fills DEQUE with N elements and measures the growth of the live heap. */
+    private static double retainedBytesPerElement(Deque61B<Integer> deque) {
+        long before = usedHeap();
+        for (int i = 0; i < N; i++) {
+            deque.addLast(VALUES[i]);
+        }
+        long after = usedHeap();
+        double perElement = (double) (after - before) / N;
+        while (!deque.isEmpty()) {
+            deque.removeFirst();
+        }
+        return perElement;
+    }
+
+    /* Keeps 1000 items queued while adding at the back and removing at the front. */
+    private static double churn(Deque61B<Integer> deque) {
+        for (int i = 0; i < 1000; i++) {
+            deque.addLast(VALUES[i]);
+        }
+        long begin = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < CHURN_OPS; i++) {
+            deque.addLast(VALUES[i % N]);
+            sink += deque.removeFirst();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        while (!deque.isEmpty()) {
+            deque.removeFirst();
+        }
+        return seconds;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /* HotSpot-specific: bytes this thread has allocated so far. */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,62 @@
+package speed;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import deque.MappedFileDeque61B;
+
+/** Measures enqueue and dequeue bandwidth of MappedFileDeque61B in MB/s for
+ *  small and large records. Each run enqueues TOTAL_BYTES of records into a
+ *  fresh file, calls force(), reopens the file, and drains it from the front.
+ */
+public class MappedFileDequeSpeedTest {
+    private static final long TOTAL_BYTES = 256L << 20;
+    private static final int[] RECORD_SIZES = {64, 4096};
+
+    /** Prints one row per record size. ARGS is unused. */
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%d MB per run%n%n", TOTAL_BYTES >> 20);
+        System.out.printf("%12s %16s %16s %16s%n", "record bytes", "enqueue MB/s", "force ms", "dequeue MB/s");
+        for (int recordSize : RECORD_SIZES) {
+            run(recordSize);
+        }
+    }
+
+    private static void run(int recordSize) throws IOException {
+        Path path = Files.createTempFile("deque-speed", ".log");
+        try {
+            byte[] record = new byte[recordSize];
+            long count = TOTAL_BYTES / recordSize;
+            double mb = (double) count * recordSize / (1 << 20);
+
+            MappedFileDeque61B deque = new MappedFileDeque61B(path);
+            long begin = System.nanoTime();
+            for (long i = 0; i < count; i++) {
+                record[0] = (byte) i;
+                deque.addLast(record);
+            }
+            double enqueueSeconds = (System.nanoTime() - begin) / 1e9;
+            begin = System.nanoTime();
+            deque.close();
+            double forceMillis = (System.nanoTime() - begin) / 1e6;
+
+            deque = new MappedFileDeque61B(path);
+            long sink = 0;
+            begin = System.nanoTime();
+            while (!deque.isEmpty()) {
+                sink += deque.removeFirst()[0];
+            }
+            double dequeueSeconds = (System.nanoTime() - begin) / 1e9;
+            deque.close();
+            if (sink == 42) {
+                System.out.print("");
+            }
+
+            System.out.printf("%12d %16.1f %16.1f %16.1f%n", recordSize,
+                    mb / enqueueSeconds, forceMillis, mb / dequeueSeconds);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package speed;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import deque.MaxArrayDeque61B;
+
+/** Times a sliding-window maximum on MaxArrayDeque61B. Each step adds one item
+ *  at the back, drops one from the front, and asks for the max. max() reads
+ *  the monotonic companion deque. max(Comparator) is the old full O(n) scan.
+ */
+public class MaxDequeSpeedTest {
+    private static final int[] WINDOWS = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int FAST_STEPS = 5_000_000;
+    private static final int SCAN_STEPS = 2_000;
+
+    /**
+     * Prints nanoseconds per window step for each window size. The O(n) scan
+     * runs far fewer steps so large windows finish. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        // Warm up both paths so the first row is not measuring the interpreter.
+        nanosPerStep(WINDOWS[0], FAST_STEPS, false);
+        nanosPerStep(WINDOWS[0], SCAN_STEPS * 10, true);
+
+        System.out.printf("%10s %16s %16s %10s%n", "window", "max() ns/step", "scan ns/step", "speedup");
+        for (int w : WINDOWS) {
+            double fast = nanosPerStep(w, FAST_STEPS, false);
+            double scan = nanosPerStep(w, SCAN_STEPS, true);
+            System.out.printf("%10d %16.1f %16.1f %9.0fx%n", w, fast, scan, scan / fast);
+        }
+    }
+
+    private static double nanosPerStep(int window, int steps, boolean scan) {
+        Comparator<Integer> order = Integer::compare;
+        MaxArrayDeque61B<Integer> mad = new MaxArrayDeque61B<>(order);
+        Random random = new Random(window);
+        for (int i = 0; i < window; i++) {
+            mad.addLast(random.nextInt());
+        }
+        long sink = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            mad.addLast(random.nextInt());
+            mad.removeFirst();
+            sink += scan ? mad.max(order) : mad.max();
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return (double) elapsed / steps;
+    }
+}
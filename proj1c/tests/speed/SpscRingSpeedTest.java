@@ -0,0 +1,83 @@
+package speed;
+
+import java.util.Arrays;
+
+import deque.ConcurrentLinkedDeque61B;
+import deque.Deque61B;
+import deque.SpscRingBuffer61B;
+
+/** Measures SpscRingBuffer61B with one producer and one consumer thread.
+ *  Reports throughput in ops/sec and the producer-to-consumer latency
+ *  percentiles. ConcurrentLinkedDeque61B runs the same workload as a baseline.
+ *  Warmup rounds run first and are not reported, the way a JMH fork would.
+ */
+public class SpscRingSpeedTest {
+    private static final int ITEMS = 5_000_000;
+    private static final int CAPACITY = 1024;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    /**
+     * Runs the warmup and measured rounds for each queue and prints one line
+     * per measured round. ARGS is unused.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d items per round, ring capacity %d%n%n", ITEMS, CAPACITY);
+        System.out.printf("%-26s %12s %10s %10s %10s %10s%n",
+                "queue", "Mops/s", "p50 (ns)", "p99 (ns)", "p99.9 (ns)", "max (ns)");
+        for (int r = 0; r < WARMUP_ROUNDS + MEASURED_ROUNDS; r++) {
+            boolean report = r >= WARMUP_ROUNDS;
+            run(new SpscRingBuffer61B<>(CAPACITY), report);
+            run(new ConcurrentLinkedDeque61B<>(), report);
+        }
+    }
+
+    /**
+     * Streams ITEMS timestamps from a producer thread to the calling thread.
+     * The SPSC ring is bounded, so the producer waits while it is full.
+     * The consumer records one latency sample for every item it removes.
+     * Both sides yield instead of busy-spinning, so the run still makes
+     * progress on machines with fewer than two free cores.
+     */
+    private static void run(Deque61B<Long> queue, boolean report) throws InterruptedException {
+        SpscRingBuffer61B<Long> ring = queue instanceof SpscRingBuffer61B ? (SpscRingBuffer61B<Long>) queue : null;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < ITEMS; i++) {
+                Long stamp = System.nanoTime();
+                if (ring != null) {
+                    while (!ring.offer(stamp)) {
+                        Thread.yield();
+                    }
+                } else {
+                    queue.addLast(stamp);
+                }
+            }
+        });
+
+        long[] latencies = new long[ITEMS];
+        long begin = System.nanoTime();
+        producer.start();
+        for (int received = 0; received < ITEMS; ) {
+            Long stamp = ring != null ? ring.poll() : queue.removeFirst();
+            if (stamp == null) {
+                Thread.yield();
+                continue;
+            }
+            latencies[received++] = System.nanoTime() - stamp;
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        producer.join();
+
+        if (report) {
+            Arrays.sort(latencies);
+            System.out.printf("%-26s %12.2f %10d %10d %10d %10d%n",
+                    queue.getClass().getSimpleName(), ITEMS / seconds / 1e6,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), latencies[latencies.length - 1]);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+    }
+}